@@ -1,6 +1,6 @@
 package org.neves.libraryapi;
 
-import org.modelmapper.ModelMapper;
+import org.neves.libraryapi.api.mapper.BookMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -9,8 +9,8 @@ import org.springframework.context.annotation.Bean;
 public class LibraryApiApplication {
 
     @Bean
-    public ModelMapper modelMapper(){
-        return new ModelMapper();
+    public BookMapper bookMapper(){
+        return new BookMapper();
     }
 
     public static void main(String[] args) {
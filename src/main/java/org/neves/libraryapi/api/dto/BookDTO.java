@@ -1,6 +1,7 @@
 package org.neves.libraryapi.api.dto;
 
 import lombok.*;
+import org.neves.libraryapi.validation.Isbn;
 
 import javax.validation.constraints.NotEmpty;
 
@@ -19,6 +20,7 @@ public class BookDTO {
     private String author;
 
     @NotEmpty
+    @Isbn
     private String isbn;
 
 }
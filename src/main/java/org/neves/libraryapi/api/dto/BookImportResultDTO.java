@@ -0,0 +1,24 @@
+package org.neves.libraryapi.api.dto;
+
+import lombok.*;
+import org.neves.libraryapi.service.BookImportResult;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResultDTO {
+
+    private int index;
+
+    private Long id;
+
+    private String isbn;
+
+    private BookImportResult.Status status;
+
+    private List<String> errors;
+
+}
@@ -0,0 +1,17 @@
+package org.neves.libraryapi.api.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookMultiGetDTO {
+
+    private List<BookDTO> content;
+
+    private List<Long> missing;
+
+}
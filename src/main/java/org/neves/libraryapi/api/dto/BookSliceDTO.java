@@ -0,0 +1,17 @@
+package org.neves.libraryapi.api.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSliceDTO {
+
+    private List<BookDTO> content;
+
+    private Long next;
+
+}
@@ -0,0 +1,16 @@
+package org.neves.libraryapi.api.dto;
+
+import lombok.*;
+import org.neves.libraryapi.service.BookSuggestion;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSuggestionDTO {
+
+    private String text;
+
+    private BookSuggestion.Type type;
+
+}
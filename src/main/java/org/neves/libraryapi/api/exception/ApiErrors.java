@@ -17,7 +17,11 @@ public class ApiErrors {
     }
 
     public ApiErrors(BusinessException exception) {
-        this.errors = Collections.singletonList(exception.getMessage());
+        this(exception.getMessage());
+    }
+
+    public ApiErrors(String message) {
+        this.errors = Collections.singletonList(message);
     }
 
     public List<String> getErrors() {
@@ -0,0 +1,25 @@
+package org.neves.libraryapi.api.mapper;
+
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.model.entity.Book;
+
+public class BookMapper {
+
+    public Book toEntity(BookDTO dto) {
+        return Book.builder()
+                .id(dto.getId())
+                .title(dto.getTitle())
+                .author(dto.getAuthor())
+                .isbn(dto.getIsbn())
+                .build();
+    }
+
+    public BookDTO toDTO(Book book) {
+        return BookDTO.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .build();
+    }
+}
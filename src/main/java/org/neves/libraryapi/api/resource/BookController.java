@@ -1,65 +1,260 @@
 package org.neves.libraryapi.api.resource;
 
-import org.modelmapper.ModelMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.api.dto.BookImportResultDTO;
+import org.neves.libraryapi.api.dto.BookMultiGetDTO;
+import org.neves.libraryapi.api.dto.BookSliceDTO;
+import org.neves.libraryapi.api.dto.BookSuggestionDTO;
 import org.neves.libraryapi.api.exception.ApiErrors;
+import org.neves.libraryapi.api.mapper.BookMapper;
 import org.neves.libraryapi.exception.BusinessException;
 import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookSearchService;
 import org.neves.libraryapi.service.BookService;
+import org.neves.libraryapi.service.BookSuggestService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.neves.libraryapi.api.resource.BookControllerSupport.*;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/books")
 public class BookController {
 
+    private static final String CSV_MEDIA_TYPE = "text/csv";
+
     private BookService service;
-    private ModelMapper mapper;
+    private BookSearchService searchService;
+    private BookSuggestService suggestService;
+    private BookMapper mapper;
+    private ObjectMapper objectMapper;
+    private Validator validator;
+    private CacheControl bookCacheControl;
 
-    public BookController(BookService service, ModelMapper mapper) {
+    public BookController(BookService service, BookSearchService searchService, BookSuggestService suggestService,
+                          BookMapper mapper, ObjectMapper objectMapper, Validator validator,
+                          @Value("${library.http.books.max-age:0}") long maxAgeSeconds) {
         this.service = service;
+        this.searchService = searchService;
+        this.suggestService = suggestService;
         this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.bookCacheControl = bookCacheControl(maxAgeSeconds);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BookDTO create(@RequestBody @Valid BookDTO dto) {
-        Book entity = mapper.map(dto, Book.class);
+        Book entity = mapper.toEntity(dto);
         entity = service.save(entity);
-        return mapper.map(entity, BookDTO.class);
+        return mapper.toDTO(entity);
     }
 
-    @GetMapping("{id}")
+    /**
+     * Um registro malformado encerra a leitura: os anteriores são importados, ele volta como
+     * {@code INVALID} na sua posição e os seguintes são ignorados. Se já o primeiro for malformado, responde 400.
+     */
+    @PostMapping(value = "batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
     @ResponseStatus(HttpStatus.OK)
-    public BookDTO get(@PathVariable Long id) {
-        return service.getById(id)
-                .map(book -> mapper.map(book, BookDTO.class))
+    public List<BookImportResultDTO> importBooks(InputStream body) throws IOException {
+        List<BookImportResultDTO> results = new ArrayList<>();
+        List<Book> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Integer> chunkIndexes = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        int index = 0;
+        try (MappingIterator<BookDTO> records = objectMapper.readerFor(BookDTO.class).readValues(body)) {
+            while (records.hasNextValue()) {
+                BookDTO dto = records.nextValue();
+                Set<ConstraintViolation<BookDTO>> violations = validator.validate(dto);
+                if (violations.isEmpty()) {
+                    chunk.add(mapper.toEntity(dto));
+                    chunkIndexes.add(index);
+                } else {
+                    results.add(invalidImportResult(index, dto, violations));
+                }
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    importChunk(chunk, chunkIndexes, results);
+                }
+                index++;
+            }
+        } catch (JsonProcessingException e) {
+            if (index == 0)
+                throw new BusinessException("Conteúdo de importação inválido na posição 0.");
+            results.add(malformedImportResult(index));
+        }
+        importChunk(chunk, chunkIndexes, results);
+        results.sort(Comparator.comparingInt(BookImportResultDTO::getIndex));
+        return results;
+    }
+
+    private void importChunk(List<Book> chunk, List<Integer> chunkIndexes, List<BookImportResultDTO> results) {
+        if (chunk.isEmpty())
+            return;
+        results.addAll(importResults(chunkIndexes, service.importBooks(chunk)));
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    @GetMapping("{id}")
+    public ResponseEntity<BookDTO> get(@PathVariable Long id, WebRequest request) {
+        Book book = service.getById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        long lastModified = book.getLastModified() == null ? -1 : book.getLastModified().toEpochMilli();
+        if (book.getVersion() != null && request.checkNotModified(eTag(book.getVersion()), lastModified))
+            return null;
+
+        ResponseEntity.BodyBuilder response = withETag(ResponseEntity.ok(), book).cacheControl(bookCacheControl);
+        if (lastModified >= 0)
+            response.lastModified(lastModified);
+        return response.body(mapper.toDTO(book));
+    }
+
+    @GetMapping
+    public Page<BookDTO> find(BookDTO filter, Pageable pageRequest) {
+        return service.find(mapper.toEntity(filter), pageRequest).map(mapper::toDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public BookMultiGetDTO getAll(@RequestParam List<Long> ids) {
+        Map<Long, Book> booksById = service.getAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return multiGet(ids, booksById, mapper);
+    }
+
+    @GetMapping(params = {"after", "!ids"})
+    public BookSliceDTO findAfter(BookDTO filter, @RequestParam Long after, @RequestParam(defaultValue = "20") int size) {
+        int sliceSize = limit(size);
+        List<BookDTO> content = service.findAfter(mapper.toEntity(filter), after, sliceSize).stream()
+                .map(mapper::toDTO)
+                .collect(Collectors.toList());
+        Long next = content.size() < sliceSize ? null : content.get(content.size() - 1).getId();
+        return BookSliceDTO.builder().content(content).next(next).build();
+    }
+
+    @GetMapping("search")
+    public List<BookDTO> search(@RequestParam String q, @RequestParam(defaultValue = "20") int size) {
+        return searchService.search(q, limit(size)).stream()
+                .map(mapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @GetMapping("suggest")
+    public List<BookSuggestionDTO> suggest(@RequestParam String prefix, @RequestParam(defaultValue = "10") int size) {
+        return suggestions(suggestService.suggest(prefix, limit(size)));
+    }
+
+    @GetMapping("export")
+    public void export(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        if ("ndjson".equalsIgnoreCase(format))
+            exportNdjson(response);
+        else if ("csv".equalsIgnoreCase(format))
+            exportCsv(response);
+        else
+            throw new BusinessException("Formato de exportação inválido: use ndjson ou csv.");
+    }
+
+    private void exportNdjson(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writerFor(BookDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            service.exportAll(book -> {
+                try {
+                    writer.writeValue(generator, mapper.toDTO(book));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void exportCsv(HttpServletResponse response) throws IOException {
+        response.setContentType(CSV_MEDIA_TYPE + ";charset=UTF-8");
+        try (Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)) {
+            writer.write(CSV_HEADER);
+            service.exportAll(book -> {
+                try {
+                    appendCsvLine(writer, book);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable Long id) {
-        Book book = service.getById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        service.delete(book);
+        if (!service.deleteById(id))
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+
+    @DeleteMapping(params = "ids")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteAll(@RequestParam List<Long> ids) {
+        service.deleteAllById(ids);
     }
 
     @PutMapping("{id}")
-    public BookDTO update(@PathVariable Long id, @RequestBody @Valid BookDTO dto) {
+    public ResponseEntity<BookDTO> update(@PathVariable Long id, @RequestBody @Valid BookDTO dto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null && !ANY_ETAG.equals(ifMatch.trim()))
+            return updateIfMatch(id, dto, parseVersion(ifMatch));
+
         return service.getById(id).map(book -> {
-            book.setAuthor(dto.getAuthor());
-            book.setTitle(dto.getTitle());
-            book = service.update(book);
-            return mapper.map(book, BookDTO.class);
+            Book updatingBook = book.toBuilder()
+                    .author(dto.getAuthor())
+                    .title(dto.getTitle())
+                    .build();
+            Book updatedBook = service.update(updatingBook);
+            return withETag(ResponseEntity.ok(), updatedBook).body(mapper.toDTO(updatedBook));
         }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
+    private ResponseEntity<BookDTO> updateIfMatch(Long id, BookDTO dto, Long version) {
+        Book updatingBook = Book.builder().id(id).version(version).isbn(dto.getIsbn())
+                .title(dto.getTitle()).author(dto.getAuthor()).build();
+        Optional<Book> updatedBook = service.updateIfMatch(updatingBook);
+        if (updatedBook.isPresent())
+            return withETag(ResponseEntity.ok(), updatedBook.get()).body(mapper.toDTO(updatedBook.get()));
+        throw updateIfMatchFailure(service.getById(id).orElse(null), version, dto.getIsbn());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiErrors handleValidationExceptions(MethodArgumentNotValidException exception) {
@@ -72,4 +267,10 @@ public class BookController {
     public ApiErrors handleBusinessExceptions(BusinessException exception) {
         return new ApiErrors(exception);
     }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors handleOptimisticLockingExceptions(ObjectOptimisticLockingFailureException exception) {
+        return new ApiErrors("Livro alterado por outra requisição.");
+    }
 }
@@ -0,0 +1,159 @@
+package org.neves.libraryapi.api.resource;
+
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.api.dto.BookImportResultDTO;
+import org.neves.libraryapi.api.dto.BookMultiGetDTO;
+import org.neves.libraryapi.api.dto.BookSuggestionDTO;
+import org.neves.libraryapi.api.mapper.BookMapper;
+import org.neves.libraryapi.exception.BusinessException;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookImportResult;
+import org.neves.libraryapi.service.BookSuggestion;
+import org.neves.libraryapi.validation.Isbns;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.ConstraintViolation;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Regras de contrato compartilhadas por {@link BookController} e {@link ReactiveBookController}.
+ */
+final class BookControllerSupport {
+
+    static final int IMPORT_CHUNK_SIZE = 500;
+    static final int MAX_SLICE_SIZE = 100;
+    static final String ANY_ETAG = "*";
+    static final String CSV_HEADER = "id,title,author,isbn\n";
+
+    private BookControllerSupport() {
+    }
+
+    static CacheControl bookCacheControl(long maxAgeSeconds) {
+        return maxAgeSeconds > 0
+                ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).mustRevalidate()
+                : CacheControl.noCache();
+    }
+
+    static int limit(int size) {
+        return Math.max(1, Math.min(size, MAX_SLICE_SIZE));
+    }
+
+    static BookImportResultDTO invalidImportResult(int index, BookDTO dto, Set<ConstraintViolation<BookDTO>> violations) {
+        List<String> errors = violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .collect(Collectors.toList());
+        return BookImportResultDTO.builder()
+                .index(index)
+                .isbn(dto.getIsbn())
+                .status(BookImportResult.Status.INVALID)
+                .errors(errors)
+                .build();
+    }
+
+    static BookImportResultDTO malformedImportResult(int index) {
+        return BookImportResultDTO.builder()
+                .index(index)
+                .status(BookImportResult.Status.INVALID)
+                .errors(Collections.singletonList("registro malformado"))
+                .build();
+    }
+
+    /**
+     * Associa cada resultado do serviço à posição do registro correspondente no corpo da importação.
+     */
+    static List<BookImportResultDTO> importResults(List<Integer> indexes, List<BookImportResult> imported) {
+        List<BookImportResultDTO> results = new ArrayList<>(imported.size());
+        for (int i = 0; i < imported.size(); i++) {
+            BookImportResult result = imported.get(i);
+            results.add(BookImportResultDTO.builder()
+                    .index(indexes.get(i))
+                    .id(result.getBook().getId())
+                    .isbn(result.getBook().getIsbn())
+                    .status(result.getStatus())
+                    .build());
+        }
+        return results;
+    }
+
+    static BookMultiGetDTO multiGet(List<Long> ids, Map<Long, Book> booksById, BookMapper mapper) {
+        List<BookDTO> content = new ArrayList<>(ids.size());
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            Book book = booksById.get(id);
+            if (book == null)
+                missing.add(id);
+            else
+                content.add(mapper.toDTO(book));
+        }
+        return BookMultiGetDTO.builder().content(content).missing(new ArrayList<>(missing)).build();
+    }
+
+    static List<BookSuggestionDTO> suggestions(List<BookSuggestion> suggestions) {
+        return suggestions.stream()
+                .map(suggestion -> BookSuggestionDTO.builder()
+                        .text(suggestion.getText())
+                        .type(suggestion.getType())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    static void appendCsvLine(Appendable out, Book book) throws IOException {
+        out.append(String.valueOf(book.getId()));
+        appendCsvField(out, book.getTitle());
+        appendCsvField(out, book.getAuthor());
+        appendCsvField(out, book.getIsbn());
+        out.append('\n');
+    }
+
+    private static void appendCsvField(Appendable out, String value) throws IOException {
+        out.append(',');
+        if (value == null)
+            return;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.append(value);
+            return;
+        }
+        out.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * Lê a versão de um If-Match no formato dos ETags da API; qualquer outro valor nunca casa.
+     */
+    static Long parseVersion(String ifMatch) {
+        String value = ifMatch.trim();
+        if (value.length() < 3 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"')
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+        try {
+            return Long.valueOf(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+
+    /**
+     * Motivo de um UPDATE condicional que não alterou nenhuma linha, a partir do livro atual ({@code null} se
+     * não existir): versão diferente responde 412; mesma versão com outro isbn é erro do cliente, pois o isbn
+     * não pode ser alterado.
+     */
+    static RuntimeException updateIfMatchFailure(Book current, Long version, String isbn) {
+        if (current == null)
+            return new ResponseStatusException(HttpStatus.NOT_FOUND);
+        if (version.equals(current.getVersion()) && !current.getIsbn().equals(Isbns.toIsbn13(isbn)))
+            return new BusinessException("Isbn não pode ser alterado.");
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, Book book) {
+        return book.getVersion() == null ? builder : builder.eTag(eTag(book.getVersion()));
+    }
+
+    static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+}
@@ -0,0 +1,291 @@
+package org.neves.libraryapi.api.resource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.api.dto.BookImportResultDTO;
+import org.neves.libraryapi.api.dto.BookMultiGetDTO;
+import org.neves.libraryapi.api.dto.BookSliceDTO;
+import org.neves.libraryapi.api.dto.BookSuggestionDTO;
+import org.neves.libraryapi.api.exception.ApiErrors;
+import org.neves.libraryapi.api.mapper.BookMapper;
+import org.neves.libraryapi.exception.BusinessException;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookImportResult;
+import org.neves.libraryapi.service.BookSearchService;
+import org.neves.libraryapi.service.BookSuggestService;
+import org.neves.libraryapi.service.ReactiveBookService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.neves.libraryapi.api.resource.BookControllerSupport.*;
+
+/**
+ * Mesmo contrato do {@link BookController}, servido pelo WebFlux no perfil {@code reactive}.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/books")
+public class ReactiveBookController {
+
+    private static final int EXPORT_BUFFER_SIZE = 100;
+    private static final MediaType CSV_MEDIA_TYPE = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private ReactiveBookService service;
+    private BookSearchService searchService;
+    private BookSuggestService suggestService;
+    private BookMapper mapper;
+    private ObjectWriter bookWriter;
+    private Validator validator;
+    private CacheControl bookCacheControl;
+
+    public ReactiveBookController(ReactiveBookService service, BookSearchService searchService,
+                                  BookSuggestService suggestService, BookMapper mapper, ObjectMapper objectMapper,
+                                  Validator validator, @Value("${library.http.books.max-age:0}") long maxAgeSeconds) {
+        this.service = service;
+        this.searchService = searchService;
+        this.suggestService = suggestService;
+        this.mapper = mapper;
+        this.bookWriter = objectMapper.writerFor(BookDTO.class);
+        this.validator = validator;
+        this.bookCacheControl = bookCacheControl(maxAgeSeconds);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<BookDTO> create(@RequestBody @Valid BookDTO dto) {
+        return service.save(mapper.toEntity(dto)).map(mapper::toDTO);
+    }
+
+    /**
+     * Os registros são importados em blocos de posições consecutivas; ordenar os resultados dentro de cada
+     * bloco mantém a resposta ordenada por índice, como no {@link BookController}.
+     */
+    @PostMapping(value = "batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<BookImportResultDTO> importBooks(@RequestBody Flux<BookDTO> body) {
+        return body.index()
+                .buffer(IMPORT_CHUNK_SIZE)
+                .concatMap(this::importChunk);
+    }
+
+    private Flux<BookImportResultDTO> importChunk(List<Tuple2<Long, BookDTO>> records) {
+        List<BookImportResultDTO> invalidResults = new ArrayList<>();
+        List<Book> chunk = new ArrayList<>(records.size());
+        List<Integer> chunkIndexes = new ArrayList<>(records.size());
+        for (Tuple2<Long, BookDTO> record : records) {
+            int index = record.getT1().intValue();
+            BookDTO dto = record.getT2();
+            Set<ConstraintViolation<BookDTO>> violations = validator.validate(dto);
+            if (violations.isEmpty()) {
+                chunk.add(mapper.toEntity(dto));
+                chunkIndexes.add(index);
+            } else {
+                invalidResults.add(invalidImportResult(index, dto, violations));
+            }
+        }
+        Mono<List<BookImportResult>> imported = chunk.isEmpty()
+                ? Mono.just(Collections.emptyList())
+                : service.importBooks(chunk);
+        return imported.flatMapIterable(importedBooks -> {
+            List<BookImportResultDTO> results = new ArrayList<>(invalidResults);
+            results.addAll(importResults(chunkIndexes, importedBooks));
+            results.sort(Comparator.comparingInt(BookImportResultDTO::getIndex));
+            return results;
+        });
+    }
+
+    /**
+     * As respostas 304 ficam a cargo do WebFlux, que compara ETag e Last-Modified da resposta com os
+     * cabeçalhos condicionais da requisição.
+     */
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<BookDTO>> get(@PathVariable Long id) {
+        return service.getById(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .map(book -> {
+                    ResponseEntity.BodyBuilder response = withETag(ResponseEntity.ok(), book).cacheControl(bookCacheControl);
+                    if (book.getLastModified() != null)
+                        response.lastModified(book.getLastModified());
+                    return response.body(mapper.toDTO(book));
+                });
+    }
+
+    @GetMapping
+    public Mono<Page<BookDTO>> find(BookDTO filter, Pageable pageRequest) {
+        return service.find(mapper.toEntity(filter), pageRequest).map(page -> page.map(mapper::toDTO));
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<BookMultiGetDTO> getAll(@RequestParam List<Long> ids) {
+        return service.getAllById(ids)
+                .collectMap(Book::getId, Function.identity())
+                .map(booksById -> multiGet(ids, booksById, mapper));
+    }
+
+    @GetMapping(params = {"after", "!ids"})
+    public Mono<BookSliceDTO> findAfter(BookDTO filter, @RequestParam Long after, @RequestParam(defaultValue = "20") int size) {
+        int sliceSize = limit(size);
+        return service.findAfter(mapper.toEntity(filter), after, sliceSize)
+                .map(mapper::toDTO)
+                .collectList()
+                .map(content -> {
+                    Long next = content.size() < sliceSize ? null : content.get(content.size() - 1).getId();
+                    return BookSliceDTO.builder().content(content).next(next).build();
+                });
+    }
+
+    /**
+     * A busca carrega os livros encontrados pelo repositório JPA, por isso roda fora do event loop.
+     */
+    @GetMapping("search")
+    public Mono<List<BookDTO>> search(@RequestParam String q, @RequestParam(defaultValue = "20") int size) {
+        return Mono.fromCallable(() -> searchService.search(q, limit(size)).stream()
+                .map(mapper::toDTO)
+                .collect(Collectors.toList()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("suggest")
+    public List<BookSuggestionDTO> suggest(@RequestParam String prefix, @RequestParam(defaultValue = "10") int size) {
+        return suggestions(suggestService.suggest(prefix, limit(size)));
+    }
+
+    /**
+     * Fluxo com contrapressão: o banco só é lido à medida que o cliente consome a resposta. Aceita os mesmos
+     * filtros da listagem; as linhas são agrupadas em buffers de {@value #EXPORT_BUFFER_SIZE} livros para não
+     * escrever no socket a cada registro.
+     */
+    @GetMapping("export")
+    public Mono<Void> export(BookDTO filter, @RequestParam(defaultValue = "ndjson") String format,
+                             ServerHttpResponse response) {
+        Function<Book, byte[]> line;
+        byte[] header;
+        if ("ndjson".equalsIgnoreCase(format)) {
+            response.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+            line = this::ndjsonLine;
+            header = new byte[0];
+        } else if ("csv".equalsIgnoreCase(format)) {
+            response.getHeaders().setContentType(CSV_MEDIA_TYPE);
+            line = ReactiveBookController::csvLine;
+            header = CSV_HEADER.getBytes(StandardCharsets.UTF_8);
+        } else {
+            return Mono.error(new BusinessException("Formato de exportação inválido: use ndjson ou csv."));
+        }
+
+        Flux<DataBuffer> body = service.findAll(mapper.toEntity(filter))
+                .map(line)
+                .startWith(header)
+                .buffer(EXPORT_BUFFER_SIZE)
+                .map(lines -> {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    lines.forEach(bookLine -> bytes.write(bookLine, 0, bookLine.length));
+                    return response.bufferFactory().wrap(bytes.toByteArray());
+                });
+        return response.writeWith(body);
+    }
+
+    private byte[] ndjsonLine(Book book) {
+        try {
+            return (bookWriter.writeValueAsString(mapper.toDTO(book)) + '\n').getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] csvLine(Book book) {
+        StringBuilder line = new StringBuilder();
+        try {
+            appendCsvLine(line, book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return line.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @DeleteMapping("{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable Long id) {
+        return service.deleteById(id)
+                .flatMap(deleted -> deleted ? Mono.empty() : Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    @DeleteMapping(params = "ids")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteAll(@RequestParam List<Long> ids) {
+        return service.deleteAllById(ids).then();
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<BookDTO>> update(@PathVariable Long id, @RequestBody @Valid BookDTO dto,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null && !ANY_ETAG.equals(ifMatch.trim()))
+            return Mono.fromCallable(() -> parseVersion(ifMatch)).flatMap(version -> updateIfMatch(id, dto, version));
+
+        return service.getById(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .flatMap(book -> service.update(book.toBuilder()
+                        .author(dto.getAuthor())
+                        .title(dto.getTitle())
+                        .build()))
+                .map(updatedBook -> withETag(ResponseEntity.ok(), updatedBook).body(mapper.toDTO(updatedBook)));
+    }
+
+    private Mono<ResponseEntity<BookDTO>> updateIfMatch(Long id, BookDTO dto, Long version) {
+        Book updatingBook = Book.builder().id(id).version(version).isbn(dto.getIsbn())
+                .title(dto.getTitle()).author(dto.getAuthor()).build();
+        return service.updateIfMatch(updatingBook)
+                .map(updatedBook -> withETag(ResponseEntity.ok(), updatedBook).body(mapper.toDTO(updatedBook)))
+                .switchIfEmpty(Mono.defer(() -> service.getById(id)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(current -> Mono.error(updateIfMatchFailure(current.orElse(null), version, dto.getIsbn())))));
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors handleValidationExceptions(WebExchangeBindException exception) {
+        return new ApiErrors(exception.getBindingResult());
+    }
+
+    @ExceptionHandler(BusinessException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors handleBusinessExceptions(BusinessException exception) {
+        return new ApiErrors(exception);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors handleOptimisticLockingExceptions(OptimisticLockingFailureException exception) {
+        return new ApiErrors("Livro alterado por outra requisição.");
+    }
+}
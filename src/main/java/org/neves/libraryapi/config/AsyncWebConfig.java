@@ -0,0 +1,42 @@
+package org.neves.libraryapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * Modo de execução opcional ({@code library.web.async.enabled=true}) em que os handlers rodam em um
+ * pool dedicado em vez das threads do Tomcat, pelo suporte assíncrono do Spring MVC. Uma requisição que
+ * passar de {@code library.web.async.timeout-ms} recebe 503.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "library.web.async", name = "enabled", havingValue = "true")
+public class AsyncWebConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor requestExecutor(@Value("${library.web.async.pool-size:200}") int poolSize,
+                                                  @Value("${library.web.async.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("book-request-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    @Bean
+    public WebMvcRegistrations offloadingMvcRegistrations(ThreadPoolTaskExecutor requestExecutor,
+                                                          @Value("${library.web.async.timeout-ms:30000}") long timeoutMillis) {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new OffloadingHandlerAdapter(requestExecutor, timeoutMillis);
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package org.neves.libraryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificação de inicialização ({@code library.startup-check.enabled=true}, ligada no perfil {@code prod}):
+ * aquece as consultas de {@link BookRepository} usadas a cada requisição, registra a latência medida de
+ * {@code findById} e {@code existsByIsbn} e avisa quando o pool de conexões não acompanha a quantidade de
+ * requisições atendidas em paralelo.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "library.startup-check", name = "enabled", havingValue = "true")
+public class DataAccessSelfCheck {
+
+    private static final String SAMPLE_ISBN = "9780306406157";
+
+    private final BookRepository repository;
+    private final DataSource dataSource;
+    private final int iterations;
+    private final int requestConcurrency;
+
+    public DataAccessSelfCheck(BookRepository repository, DataSource dataSource,
+                               @Value("${library.startup-check.iterations:2000}") int iterations,
+                               @Value("${library.web.async.enabled:false}") boolean asyncEnabled,
+                               @Value("${library.web.async.pool-size:200}") int asyncPoolSize,
+                               @Value("${server.tomcat.threads.max:200}") int tomcatMaxThreads) {
+        this.repository = repository;
+        this.dataSource = dataSource;
+        this.iterations = iterations;
+        this.requestConcurrency = asyncEnabled ? asyncPoolSize : tomcatMaxThreads;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() throws SQLException {
+        List<Book> sample = repository.findAll(PageRequest.of(0, 1)).getContent();
+        Long id = sample.isEmpty() ? -1L : sample.get(0).getId();
+        String isbn = sample.isEmpty() ? SAMPLE_ISBN : sample.get(0).getIsbn();
+
+        log.info("findById: {}", measure(() -> repository.findById(id)));
+        log.info("existsByIsbn: {}", measure(() -> repository.existsByIsbn(isbn)));
+
+        String warning = checkPoolSize(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize(), requestConcurrency);
+        if (warning != null)
+            log.warn(warning);
+    }
+
+    /**
+     * Executa a consulta {@code iterations} vezes para aquecer o JIT, o pool e o cache de planos do banco e
+     * mede outras {@code iterations} execuções.
+     */
+    private String measure(Runnable query) {
+        for (int i = 0; i < iterations; i++) {
+            query.run();
+        }
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            query.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return String.format("p50=%dµs p99=%dµs max=%dµs (%d execuções)", micros(nanos[iterations / 2]),
+                micros(nanos[iterations * 99 / 100]), micros(nanos[iterations - 1]), iterations);
+    }
+
+    /**
+     * Compara o pool de conexões com a quantidade de threads que atendem requisições.
+     *
+     * @return o aviso a registrar, ou {@code null} se os tamanhos coincidem
+     */
+    static String checkPoolSize(int poolSize, int requestConcurrency) {
+        if (poolSize < requestConcurrency)
+            return String.format("Pool de conexões (%d) menor que o número de threads de requisição (%d): " +
+                    "requisições podem aguardar conexão (hikaricp.connections.pending).", poolSize, requestConcurrency);
+        if (poolSize > requestConcurrency)
+            return String.format("Pool de conexões (%d) maior que o número de threads de requisição (%d): " +
+                    "conexões excedentes ficarão ociosas.", poolSize, requestConcurrency);
+        return null;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
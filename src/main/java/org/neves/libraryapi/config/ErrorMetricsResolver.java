@@ -0,0 +1,43 @@
+package org.neves.libraryapi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.neves.libraryapi.exception.BusinessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Conta as exceções de negócio (ex.: isbn duplicado) e os 404 dos endpoints em {@code library.books.errors}.
+ * Apenas observa: devolve {@code null} para que os handlers da aplicação continuem tratando a exceção.
+ */
+public class ErrorMetricsResolver implements HandlerExceptionResolver {
+
+    private final Counter businessErrors;
+    private final Counter notFound;
+
+    public ErrorMetricsResolver(MeterRegistry registry) {
+        this.businessErrors = errorCounter(registry, "business");
+        this.notFound = errorCounter(registry, "not_found");
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (ex instanceof BusinessException)
+            businessErrors.increment();
+        else if (ex instanceof ResponseStatusException && ((ResponseStatusException) ex).getStatus() == HttpStatus.NOT_FOUND)
+            notFound.increment();
+        return null;
+    }
+
+    private static Counter errorCounter(MeterRegistry registry, String type) {
+        return Counter.builder("library.books.errors")
+                .description("Erros de negócio e livros não encontrados")
+                .tag("type", type)
+                .register(registry);
+    }
+}
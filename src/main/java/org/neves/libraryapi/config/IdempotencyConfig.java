@@ -0,0 +1,40 @@
+package org.neves.libraryapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.neves.libraryapi.model.repository.IdempotentResponseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@code Idempotency-Key} na criação de livros ({@code POST /api/books}); ver {@link IdempotencyFilter}.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "library.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotentResponseRepository repository, ObjectMapper objectMapper,
+            @Value("${library.rate-limit.api-key-header:X-Api-Key}") String apiKeyHeader,
+            @Value("${library.rate-limit.api-keys:}") List<String> apiKeys,
+            @Value("${library.idempotency.persistent:false}") boolean persistent,
+            @Value("${library.idempotency.maximum-size:100000}") long maximumSize,
+            @Value("${library.idempotency.ttl-ms:86400000}") long ttlMillis,
+            @Value("${library.idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        IdempotencyFilter filter = new IdempotencyFilter(persistent ? repository : null, objectMapper, apiKeyHeader,
+                apiKeys.stream().map(String::trim).filter(key -> !key.isEmpty()).collect(Collectors.toSet()),
+                maximumSize, Duration.ofMillis(ttlMillis), Duration.ofMillis(waitTimeoutMillis));
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/books");
+        return registration;
+    }
+}
@@ -0,0 +1,413 @@
+package org.neves.libraryapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.neves.libraryapi.api.exception.ApiErrors;
+import org.neves.libraryapi.model.entity.IdempotentResponse;
+import org.neves.libraryapi.model.repository.IdempotentResponseRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Torna seguras as repetições de {@code POST /api/books} que trazem {@code Idempotency-Key}: a primeira
+ * requisição de cada chave (por cliente) é executada e sua resposta guardada por {@code ttl}; as repetições
+ * recebem a mesma resposta, com {@code Idempotent-Replayed: true}, sem passar pelo controller. Repetições
+ * que chegam enquanto a primeira ainda executa esperam por ela. A mesma chave com outro corpo recebe 422.
+ * Respostas 5xx e erros não são guardados, para que a repetição execute de novo.
+ * <p>
+ * As respostas ficam em memória e, com {@code library.idempotency.persistent=true}, também na tabela
+ * {@code idempotent_response}, valendo entre reinícios e entre instâncias. O cliente é a chave de API, se for
+ * uma das configuradas, ou o endereço de origem, como no {@link RateLimitInterceptor}; cliente e chave são
+ * guardados como um hash SHA-256, de tamanho fixo.
+ */
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    private final Cache<String, CompletableFuture<IdempotentResponse>> responses;
+    private final IdempotentResponseRepository repository;
+    private final ObjectMapper objectMapper;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final AtomicLong lastPurgeMillis = new AtomicLong();
+
+    /**
+     * @param repository tabela de respostas, ou {@code null} para guardar só em memória
+     */
+    public IdempotencyFilter(IdempotentResponseRepository repository, ObjectMapper objectMapper, String apiKeyHeader,
+                             Set<String> apiKeys, long maximumSize, Duration ttl, Duration waitTimeout) {
+        this.responses = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeys = apiKeys;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            sendError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key inválida.");
+            return;
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String key = storageKey(clientOf(request), idempotencyKey);
+        String fingerprint = fingerprint(request, body);
+
+        while (true) {
+            CompletableFuture<IdempotentResponse> execution = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> previous = responses.asMap().putIfAbsent(key, execution);
+            if (previous == null) {
+                IdempotentResponse stored = findStored(key);
+                if (stored != null) {
+                    execution.complete(stored);
+                    replay(stored, fingerprint, response);
+                } else {
+                    execute(new CachedBodyRequest(request, body), response, chain, key, fingerprint, execution);
+                }
+                return;
+            }
+
+            IdempotentResponse stored;
+            try {
+                stored = previous.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                sendError(response, HttpStatus.CONFLICT, "Requisição com esta Idempotency-Key ainda em processamento.");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            // Sem resposta guardada a primeira execução falhou e liberou a chave: esta tenta executar.
+            if (stored != null) {
+                replay(stored, fingerprint, response);
+                return;
+            }
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         String key, String fingerprint, CompletableFuture<IdempotentResponse> execution)
+            throws ServletException, IOException {
+        CapturingResponse capturing = new CapturingResponse(response);
+        try {
+            chain.doFilter(request, capturing);
+        } catch (ServletException | IOException | RuntimeException e) {
+            release(key, execution);
+            throw e;
+        }
+        if (!request.isAsyncStarted()) {
+            complete(key, fingerprint, capturing, execution);
+            return;
+        }
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                complete(key, fingerprint, capturing, execution);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                release(key, execution);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                release(key, execution);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    private void complete(String key, String fingerprint, CapturingResponse capturing,
+                          CompletableFuture<IdempotentResponse> execution) {
+        if (capturing.isErrorSent() || capturing.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            release(key, execution);
+            return;
+        }
+        IdempotentResponse stored = IdempotentResponse.builder()
+                .idempotencyKey(key)
+                .fingerprint(fingerprint)
+                .status(capturing.getStatus())
+                .contentType(capturing.getContentType())
+                .body(capturing.getCapturedBody())
+                .createdAt(Instant.now())
+                .build();
+        save(stored);
+        execution.complete(stored);
+    }
+
+    private void release(String key, CompletableFuture<IdempotentResponse> execution) {
+        responses.asMap().remove(key, execution);
+        execution.complete(null);
+    }
+
+    private IdempotentResponse findStored(String key) {
+        if (repository == null)
+            return null;
+        Instant notBefore = Instant.now().minus(ttl);
+        return repository.findById(key).filter(stored -> stored.getCreatedAt().isAfter(notBefore)).orElse(null);
+    }
+
+    /**
+     * Falha ao gravar na tabela não desfaz a resposta já enviada: a chave continua valendo em memória.
+     */
+    private void save(IdempotentResponse stored) {
+        if (repository == null)
+            return;
+        try {
+            repository.save(stored);
+            long now = System.currentTimeMillis();
+            long lastPurge = lastPurgeMillis.get();
+            if (now - lastPurge >= PURGE_INTERVAL_MILLIS && lastPurgeMillis.compareAndSet(lastPurge, now))
+                repository.deleteCreatedBefore(Instant.now().minus(ttl));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar a resposta da Idempotency-Key {}.", stored.getIdempotencyKey(), e);
+        }
+    }
+
+    private void replay(IdempotentResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            sendError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key já usada em outra requisição.");
+            return;
+        }
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null)
+            response.setContentType(stored.getContentType());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private void sendError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiErrors(message));
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "addr:" + request.getRemoteAddr();
+    }
+
+    static String storageKey(String client, String idempotencyKey) {
+        return sha256(client.getBytes(StandardCharsets.UTF_8), ("|" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        return sha256(request.getRequestURI().getBytes(StandardCharsets.UTF_8), body);
+    }
+
+    private static String sha256(byte[]... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (byte[] part : parts)
+                digest.update(part);
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest())
+                hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Requisição cujo corpo já foi lido para calcular o fingerprint.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * O corpo já está todo em memória: há dados disponíveis e a leitura termina de imediato.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished())
+                            readListener.onDataAvailable();
+                        if (isFinished())
+                            readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8.name() : encoding));
+        }
+    }
+
+    /**
+     * Escreve a resposta normalmente para o cliente e guarda uma cópia do corpo. Diferente de bufferizar a
+     * resposta, funciona também quando ela é concluída em outra thread (modo assíncrono).
+     */
+    private static class CapturingResponse extends HttpServletResponseWrapper {
+
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private volatile boolean errorSent;
+
+        CapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        copy.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        copy.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null)
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null)
+                writer.flush();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            errorSent = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            errorSent = true;
+            super.sendError(sc, msg);
+        }
+
+        boolean isErrorSent() {
+            return errorSent;
+        }
+
+        byte[] getCapturedBody() {
+            if (writer != null)
+                writer.flush();
+            return copy.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.neves.libraryapi.config;
+
+import org.neves.libraryapi.service.IsbnFilter;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * {@code GET /actuator/isbnfilter} mostra o estado do filtro de isbns e {@code POST /actuator/isbnfilter}
+ * o reconstrói a partir do banco.
+ */
+@Endpoint(id = "isbnfilter")
+public class IsbnFilterEndpoint {
+
+    private final IsbnFilter isbnFilter;
+
+    public IsbnFilterEndpoint(IsbnFilter isbnFilter) {
+        this.isbnFilter = isbnFilter;
+    }
+
+    @ReadOperation
+    public IsbnFilter.Stats stats() {
+        return isbnFilter.stats();
+    }
+
+    @WriteOperation
+    public IsbnFilter.Stats rebuild() {
+        isbnFilter.rebuild();
+        return isbnFilter.stats();
+    }
+}
@@ -0,0 +1,94 @@
+package org.neves.libraryapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.neves.libraryapi.service.IsbnFilter;
+import org.neves.libraryapi.service.impl.BookOutboxRelay;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas da aplicação expostas em {@code /actuator/prometheus}. Latência por endpoint
+ * ({@code http.server.requests}) e o pool de conexões ({@code hikaricp.*}) vêm do actuator.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ServiceMetricsAspect serviceMetricsAspect(MeterRegistry registry) {
+        return new ServiceMetricsAspect(registry);
+    }
+
+    @Bean
+    public IsbnFilterEndpoint isbnFilterEndpoint(IsbnFilter isbnFilter) {
+        return new IsbnFilterEndpoint(isbnFilter);
+    }
+
+    @Bean
+    public MeterBinder isbnFilterMetrics(IsbnFilter isbnFilter) {
+        return registry -> {
+            Gauge.builder("library.isbn.filter.bits", isbnFilter, filter -> filter.stats().getBitSize())
+                    .description("Tamanho do filtro de isbns em bits")
+                    .register(registry);
+            Gauge.builder("library.isbn.filter.entries", isbnFilter, filter -> filter.stats().getApproximateEntries())
+                    .description("Quantidade aproximada de isbns no filtro")
+                    .register(registry);
+            Gauge.builder("library.isbn.filter.false.positive.probability", isbnFilter,
+                    filter -> filter.stats().getExpectedFalsePositiveProbability())
+                    .description("Probabilidade atual de falso positivo do filtro de isbns")
+                    .register(registry);
+            FunctionCounter.builder("library.isbn.filter.checks", isbnFilter, filter -> filter.stats().getChecks())
+                    .description("Consultas ao filtro de isbns")
+                    .register(registry);
+            FunctionCounter.builder("library.isbn.filter.misses", isbnFilter, filter -> filter.stats().getDefiniteMisses())
+                    .description("Consultas ao filtro que dispensaram o banco")
+                    .register(registry);
+            FunctionCounter.builder("library.isbn.filter.false.positives", isbnFilter,
+                    filter -> filter.stats().getFalsePositives())
+                    .description("Isbns indicados pelo filtro que não estavam no banco")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder bookOutboxMetrics(BookOutboxRelay relay) {
+        return registry -> {
+            Gauge.builder("library.outbox.pending", relay, BookOutboxRelay::getPendingEvents)
+                    .description("Eventos de livros aguardando publicação no outbox")
+                    .register(registry);
+            TimeGauge.builder("library.outbox.lag", relay, TimeUnit.MILLISECONDS, r -> r.getLag().toMillis())
+                    .description("Idade do evento pendente mais antigo do outbox")
+                    .register(registry);
+            FunctionCounter.builder("library.outbox.published", relay, BookOutboxRelay::getPublishedEvents)
+                    .description("Eventos de livros publicados pelo outbox")
+                    .register(registry);
+            FunctionCounter.builder("library.outbox.failures", relay, BookOutboxRelay::getFailedBatches)
+                    .description("Lotes do outbox que falharam e serão reenviados")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer bookMetricsWebMvcConfigurer(MeterRegistry registry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry interceptors) {
+                interceptors.addInterceptor(new RequestMetricsInterceptor(registry)).addPathPatterns("/api/**");
+            }
+
+            @Override
+            public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
+                resolvers.add(0, new ErrorMetricsResolver(registry));
+            }
+        };
+    }
+}
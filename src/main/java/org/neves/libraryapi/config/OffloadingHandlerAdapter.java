@@ -0,0 +1,113 @@
+package org.neves.libraryapi.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Executa os handlers em um executor próprio e limitado, liberando a thread do Tomcat enquanto o handler
+ * bloqueia no JDBC. O handler devolve um {@link DeferredResult}, então a resposta sai por um despacho ASYNC
+ * do Spring MVC, com o tempo limite de {@code timeoutMillis} e as métricas de requisição registradas como em
+ * qualquer requisição assíncrona. Handlers que escrevem direto na resposta continuam na thread do Tomcat.
+ * Quando o executor está saturado a requisição é recusada com 503 e Retry-After.
+ */
+public class OffloadingHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    private final Executor executor;
+    private final long timeoutMillis;
+
+    public OffloadingHandlerAdapter(Executor executor, long timeoutMillis) {
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        if (writesResponse(handlerMethod))
+            return super.createInvocableHandlerMethod(handlerMethod);
+        return new OffloadedHandlerMethod(handlerMethod);
+    }
+
+    private static boolean writesResponse(HandlerMethod handlerMethod) {
+        return Arrays.stream(handlerMethod.getMethodParameters())
+                .map(MethodParameter::getParameterType)
+                .anyMatch(type -> ServletResponse.class.isAssignableFrom(type)
+                        || OutputStream.class.isAssignableFrom(type) || Writer.class.isAssignableFrom(type));
+    }
+
+    private class OffloadedHandlerMethod extends ServletInvocableHandlerMethod {
+
+        OffloadedHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        /**
+         * Os argumentos são resolvidos na thread do Tomcat; só a execução do handler vai para o executor.
+         */
+        @Override
+        public Object invokeForRequest(NativeWebRequest request, ModelAndViewContainer mavContainer,
+                                       Object... providedArgs) throws Exception {
+            HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+            if (servletRequest == null || servletRequest.getDispatcherType() != DispatcherType.REQUEST
+                    || !servletRequest.isAsyncSupported())
+                return super.invokeForRequest(request, mavContainer, providedArgs);
+
+            Object[] args = getMethodArgumentValues(request, mavContainer, providedArgs);
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            DeferredResult<Object> result = new DeferredResult<>(timeoutMillis);
+            try {
+                executor.execute(() -> invoke(args, servletRequest, attributes, result));
+            } catch (RejectedExecutionException e) {
+                HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+                if (response != null)
+                    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Executor de requisições saturado.", e);
+            }
+            return result;
+        }
+
+        /**
+         * A contagem de comandos SQL desta thread vai para a requisição antes do resultado, que dispara o
+         * despacho ASYNC onde {@link RequestMetricsInterceptor} a publica.
+         */
+        private void invoke(Object[] args, HttpServletRequest request, RequestAttributes attributes,
+                            DeferredResult<Object> result) {
+            RequestContextHolder.setRequestAttributes(attributes);
+            StatementCountingInspector.reset();
+            Object value = null;
+            Throwable failure = null;
+            try {
+                value = doInvoke(args);
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                request.setAttribute(StatementCountingInspector.OFFLOADED_COUNT_ATTRIBUTE, StatementCountingInspector.current());
+                StatementCountingInspector.clear();
+                RequestContextHolder.resetRequestAttributes();
+            }
+            if (failure != null)
+                result.setErrorResult(failure);
+            else
+                result.setResult(value);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.neves.libraryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Limite de requisições por cliente e descarte de carga na API ({@code library.rate-limit.enabled=true}).
+ * O interceptador roda antes dos demais, para que requisições recusadas não cheguem a tocar no banco.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "library.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor(
+            MeterRegistry registry, DataSource dataSource,
+            @Value("${library.rate-limit.api-key-header:X-Api-Key}") String apiKeyHeader,
+            @Value("${library.rate-limit.api-keys:}") List<String> apiKeys,
+            @Value("${library.rate-limit.reads-per-second:100}") double readsPerSecond,
+            @Value("${library.rate-limit.read-burst:200}") int readBurst,
+            @Value("${library.rate-limit.writes-per-second:10}") double writesPerSecond,
+            @Value("${library.rate-limit.write-burst:20}") int writeBurst,
+            @Value("${library.rate-limit.max-in-flight:200}") int maxInFlight,
+            @Value("${library.rate-limit.max-pool-waiters:10}") int maxPoolWaiters) {
+        return new RateLimitInterceptor(registry, apiKeyHeader,
+                apiKeys.stream().map(String::trim).filter(key -> !key.isEmpty()).collect(Collectors.toSet()),
+                new RateLimitInterceptor.Limits(readsPerSecond, readBurst),
+                new RateLimitInterceptor.Limits(writesPerSecond, writeBurst),
+                maxInFlight, maxPoolWaiters, poolWaiters(dataSource));
+    }
+
+    @Bean
+    public WebMvcConfigurer rateLimitWebMvcConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry interceptors) {
+                interceptors.addInterceptor(rateLimitInterceptor)
+                        .addPathPatterns("/api/**")
+                        .order(Ordered.HIGHEST_PRECEDENCE);
+            }
+        };
+    }
+
+    /**
+     * Requisições esperando conexão no pool do banco principal; sem pool Hikari, nunca descarta por isso.
+     */
+    private static IntSupplier poolWaiters(DataSource dataSource) {
+        HikariDataSource hikari;
+        try {
+            hikari = dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            hikari = null;
+        }
+        if (hikari == null)
+            return () -> 0;
+        HikariDataSource pool = hikari;
+        return () -> {
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+            return poolBean == null ? 0 : poolBean.getThreadsAwaitingConnection();
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package org.neves.libraryapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Limita as requisições de cada cliente (chave de API, se for uma das configuradas, ou o endereço de origem)
+ * com um balde de fichas para leituras e outro para escritas, respondendo 429 ao esgotar. Antes disso descarta
+ * carga com 503: escritas quando há requisições esperando conexão do banco além do limite, e qualquer
+ * requisição quando as requisições em andamento passam do máximo. Ambos os casos informam Retry-After.
+ * Contagens em {@code library.ratelimit.requests}, por tipo (read/write) e resultado.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final int SHED_RETRY_AFTER_SECONDS = 1;
+
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final Limits reads;
+    private final Limits writes;
+    private final int maxInFlight;
+    private final int maxPoolWaiters;
+    private final IntSupplier poolWaiters;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Cache<String, TokenBucket> readBuckets;
+    private final Cache<String, TokenBucket> writeBuckets;
+    private final Counter admittedReads;
+    private final Counter admittedWrites;
+    private final Counter throttledReads;
+    private final Counter throttledWrites;
+    private final Counter shedReads;
+    private final Counter shedWrites;
+
+    public RateLimitInterceptor(MeterRegistry registry, String apiKeyHeader, Set<String> apiKeys, Limits reads,
+                                Limits writes, int maxInFlight, int maxPoolWaiters, IntSupplier poolWaiters) {
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeys = apiKeys;
+        this.reads = reads;
+        this.writes = writes;
+        this.maxInFlight = maxInFlight;
+        this.maxPoolWaiters = maxPoolWaiters;
+        this.poolWaiters = poolWaiters;
+        this.readBuckets = buckets();
+        this.writeBuckets = buckets();
+        this.admittedReads = requestCounter(registry, "read", "admitted");
+        this.admittedWrites = requestCounter(registry, "write", "admitted");
+        this.throttledReads = requestCounter(registry, "read", "throttled");
+        this.throttledWrites = requestCounter(registry, "write", "throttled");
+        this.shedReads = requestCounter(registry, "read", "shed");
+        this.shedWrites = requestCounter(registry, "write", "shed");
+        Gauge.builder("library.ratelimit.in.flight", inFlight, AtomicInteger::get)
+                .description("Requisições da API em andamento")
+                .register(registry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC)
+            return true;
+        boolean write = isWrite(request);
+        if (inFlight.incrementAndGet() > maxInFlight || (write && poolWaiters.getAsInt() >= maxPoolWaiters)) {
+            inFlight.decrementAndGet();
+            (write ? shedWrites : shedReads).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, SHED_RETRY_AFTER_SECONDS);
+            return false;
+        }
+
+        Limits limits = write ? writes : reads;
+        TokenBucket bucket = (write ? writeBuckets : readBuckets)
+                .get(clientOf(request), key -> new TokenBucket(limits.getPermitsPerSecond(), limits.getBurst()));
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            inFlight.decrementAndGet();
+            (write ? throttledWrites : throttledReads).increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+            return false;
+        }
+        (write ? admittedWrites : admittedReads).increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * O cabeçalho não é autenticado: uma chave desconhecida conta no balde do endereço, senão bastaria trocar
+     * de chave a cada requisição para nunca ser limitado.
+     */
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "addr:" + request.getRemoteAddr();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method) && !HttpMethod.OPTIONS.matches(method);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, int retryAfterSeconds) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.sendError(status.value());
+    }
+
+    private static Cache<String, TokenBucket> buckets() {
+        return Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    private static Counter requestCounter(MeterRegistry registry, String kind, String outcome) {
+        return Counter.builder("library.ratelimit.requests")
+                .description("Requisições da API admitidas, limitadas (429) ou descartadas por sobrecarga (503)")
+                .tag("kind", kind)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Vazão sustentada e rajada máxima por cliente.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Limits {
+        private final double permitsPerSecond;
+        private final int burst;
+    }
+}
@@ -0,0 +1,55 @@
+package org.neves.libraryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * Perfil {@code reactive}: a API roda no WebFlux sobre o Netty, com acesso ao banco via R2DBC.
+ * <p>
+ * O Tomcat continua no classpath por causa do modo servlet, por isso o Netty é escolhido explicitamente.
+ * O Spring Boot não cria o DataSource quando há um ConnectionFactory R2DBC, mas o JPA ainda cria o esquema e
+ * alimenta busca, sugestões e filtro de isbns, então o DataSource é declarado aqui.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements WebFluxConfigurer {
+
+    private final int maxPageSize;
+
+    public ReactiveConfig(@Value("${spring.data.web.pageable.max-page-size:2000}") int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        ReactivePageableHandlerMethodArgumentResolver pageableResolver = new ReactivePageableHandlerMethodArgumentResolver();
+        pageableResolver.setMaxPageSize(maxPageSize);
+        configurer.addCustomResolver(pageableResolver);
+    }
+}
@@ -0,0 +1,39 @@
+package org.neves.libraryapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+
+/**
+ * Garante que quem acabou de criar ou alterar um livro o leia de volta atualizado: durante
+ * {@code library.datasource.replica.read-your-writes-ms} após a escrita, {@code BookService.getById} daquele
+ * livro lê do primário, enquanto a réplica ainda pode não ter recebido a alteração.
+ */
+@Aspect
+public class ReadYourWritesAspect {
+
+    private final Cache<Long, Boolean> recentWrites;
+
+    public ReadYourWritesAspect(Duration window) {
+        this.recentWrites = Caffeine.newBuilder().expireAfterWrite(window).build();
+    }
+
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() != BookChangedEvent.Type.DELETED)
+            recentWrites.put(event.getBook().getId(), Boolean.TRUE);
+    }
+
+    @Around("execution(* org.neves.libraryapi.service.BookService+.getById(Long)) && args(id)")
+    public Object readRecentWritesFromPrimary(ProceedingJoinPoint joinPoint, Long id) throws Throwable {
+        if (id == null || recentWrites.getIfPresent(id) == null)
+            return joinPoint.proceed();
+        return ReplicaRoutingDataSource.onPrimary(joinPoint::proceed);
+    }
+}
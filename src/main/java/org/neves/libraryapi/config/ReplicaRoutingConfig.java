@@ -0,0 +1,72 @@
+package org.neves.libraryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura ({@code library.datasource.replica.urls}, separadas por vírgula). Transações somente
+ * leitura vão para as réplicas e as demais para o primário ({@code spring.datasource}); as réplicas usam o
+ * mesmo usuário, senha e configuração de pool ({@code spring.datasource.hikari}) do primário.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "library.datasource.replica", name = "urls")
+public class ReplicaRoutingConfig implements DisposableBean {
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    /**
+     * Único DataSource do contexto: com os pools também registrados como beans, a inicialização do esquema
+     * do Spring Boot entraria em ciclo. O roteador fica acessível por {@code unwrap(ReplicaRoutingDataSource.class)}.
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 @Value("${library.datasource.replica.urls}") List<String> urls,
+                                 @Value("${library.datasource.replica.connection-timeout-ms:1000}") long connectionTimeoutMillis,
+                                 @Value("${library.datasource.replica.health-check-interval-ms:5000}") long healthCheckIntervalMillis) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .url(urls.get(i).trim())
+                    .type(HikariDataSource.class)
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            replica.setConnectionTimeout(connectionTimeoutMillis);
+            replicas.add(replica);
+        }
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, healthCheckIntervalMillis, 1);
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesAspect readYourWritesAspect(
+            @Value("${library.datasource.replica.read-your-writes-ms:5000}") long windowMillis) {
+        return new ReadYourWritesAspect(Duration.ofMillis(windowMillis));
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (routingDataSource != null)
+            routingDataSource.destroy();
+    }
+}
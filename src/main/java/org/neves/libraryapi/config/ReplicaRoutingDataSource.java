@@ -0,0 +1,149 @@
+package org.neves.libraryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia as transações somente leitura para as réplicas saudáveis, em rodízio, e todo o resto para o primário.
+ * Precisa ficar atrás de um {@code LazyConnectionDataSourceProxy}: a transação só é marcada como somente
+ * leitura depois de aberta, então a conexão tem de ser obtida no primeiro comando, não no início da transação.
+ * <p>
+ * Uma thread verifica as réplicas periodicamente; sem nenhuma saudável, as leituras vão para o primário.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final int validationTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile List<String> healthyReplicas = Collections.emptyList();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long healthCheckIntervalMillis,
+                                    int validationTimeoutSeconds) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.put("replica-" + i, replicas.get(i));
+        }
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        checkReplicas();
+        healthCheck.scheduleWithFixedDelay(this::checkReplicas, healthCheckIntervalMillis, healthCheckIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Executa {@code action} lendo do primário mesmo em transações somente leitura.
+     */
+    public static <T> T onPrimary(PrimaryAction<T> action) throws Throwable {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.run();
+        } finally {
+            if (previous == null)
+                FORCE_PRIMARY.remove();
+            else
+                FORCE_PRIMARY.set(previous);
+        }
+    }
+
+    @FunctionalInterface
+    public interface PrimaryAction<T> {
+        T run() throws Throwable;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || FORCE_PRIMARY.get() != null)
+            return PRIMARY;
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty())
+            return PRIMARY;
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    /**
+     * Valida uma conexão de cada réplica e atualiza a lista das que podem receber leituras.
+     */
+    public void checkReplicas() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            try {
+                if (isValid(replica.getValue()))
+                    healthy.add(replica.getKey());
+            } catch (Exception e) {
+                if (healthyReplicas.contains(replica.getKey()))
+                    log.warn("Réplica {} indisponível; leituras seguem para as demais ou para o primário.", replica.getKey(), e);
+            }
+        }
+        healthyReplicas = Collections.unmodifiableList(healthy);
+    }
+
+    /**
+     * Conexões ociosas de uma réplica que caiu e voltou continuam no pool, inválidas; nesse caso elas são
+     * descartadas e a validação é repetida com uma conexão nova.
+     */
+    private boolean isValid(DataSource replica) throws SQLException {
+        try {
+            if (validate(replica))
+                return true;
+        } catch (SQLException e) {
+            // conexão do pool já inválida; segue para o descarte abaixo
+        }
+        if (!(replica instanceof HikariDataSource))
+            return false;
+        ((HikariDataSource) replica).getHikariPoolMXBean().softEvictConnections();
+        return validate(replica);
+    }
+
+    private boolean validate(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection()) {
+            return connection.isValid(validationTimeoutSeconds);
+        }
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        healthCheck.shutdownNow();
+        List<DataSource> pools = new ArrayList<>(replicas.values());
+        pools.add(primary);
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable)
+                ((AutoCloseable) pool).close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.neves.libraryapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Publica {@code library.hibernate.statements}: quantidade de comandos SQL executados em cada requisição,
+ * por método e rota. Um aumento nos percentis de uma rota indica N+1. Em requisições assíncronas soma os
+ * comandos do handler, executado em outra thread, aos do despacho final.
+ */
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+
+    public RequestMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCountingInspector.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object offloaded = request.getAttribute(StatementCountingInspector.OFFLOADED_COUNT_ATTRIBUTE);
+        int statements = StatementCountingInspector.current() + (offloaded == null ? 0 : (Integer) offloaded);
+        StatementCountingInspector.clear();
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("library.hibernate.statements")
+                .description("Comandos SQL executados pelo Hibernate por requisição")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? UNKNOWN_URI : pattern.toString())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry)
+                .record(statements);
+    }
+}
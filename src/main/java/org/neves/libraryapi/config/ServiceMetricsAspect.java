@@ -0,0 +1,53 @@
+package org.neves.libraryapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mede cada método de {@code BookService} em {@code library.book.service}, com histograma e percentis.
+ * Fica por fora do cache e da transação, então inclui o tempo de cache hit e de commit.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* org.neves.libraryapi.service.BookService+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String method = joinPoint.getSignature().getName();
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(timer(method, outcome));
+        }
+    }
+
+    private Timer timer(String method, String outcome) {
+        return timers.computeIfAbsent(method + ':' + outcome, key -> Timer.builder("library.book.service")
+                .description("Tempo dos métodos de BookService")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
@@ -0,0 +1,94 @@
+package org.neves.libraryapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.api.dto.BookImportResultDTO;
+import org.neves.libraryapi.api.dto.BookMultiGetDTO;
+import org.neves.libraryapi.api.dto.BookSliceDTO;
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+import org.neves.libraryapi.model.repository.BookShardIds;
+import org.neves.libraryapi.model.repository.ShardedBookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shards da tabela de livros ({@code library.sharding.urls}, separadas por vírgula, na ordem dos shards).
+ * Os pools não são beans, pelo mesmo motivo de {@link ReplicaRoutingConfig}, e usam usuário, senha e
+ * configuração de pool de {@code spring.datasource}; o banco principal continua guardando o outbox.
+ * Cada instância da aplicação precisa de um {@code library.sharding.instance-id} (0 a 15) próprio. Os ids
+ * gerados passam de 2^53 e por isso saem no JSON como texto.
+ */
+@Configuration
+@Profile("sharded")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardedBookRepository shardedBookRepository(DataSourceProperties properties, Environment environment,
+                                                       @Value("${library.sharding.urls}") List<String> urls,
+                                                       @Value("${library.sharding.instance-id:0}") int instanceId) {
+        Binder binder = Binder.get(environment);
+        List<DataSource> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = properties.initializeDataSourceBuilder()
+                    .url(urls.get(i).trim())
+                    .type(HikariDataSource.class)
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(shard));
+            shard.setPoolName("shard-" + i);
+            shards.add(shard);
+        }
+        return new ShardedBookRepository(shards, new BookShardIds(instanceId));
+    }
+
+    @Bean
+    public ShardsEndpoint shardsEndpoint(ShardedBookRepository repository) {
+        return new ShardsEndpoint(repository);
+    }
+
+    /**
+     * Um número JSON acima de 2^53 perde precisão em clientes JavaScript. Na entrada, o Jackson aceita o id
+     * tanto como texto quanto como número.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer shardedIdsAsText() {
+        return builder -> builder
+                .mixIn(BookDTO.class, IdAsText.class)
+                .mixIn(BookImportResultDTO.class, IdAsText.class)
+                .mixIn(BookSliceDTO.class, NextAsText.class)
+                .mixIn(BookMultiGetDTO.class, MissingAsText.class)
+                .mixIn(BookOutboxEvent.class, BookIdAsText.class);
+    }
+
+    private abstract static class IdAsText {
+        @JsonSerialize(using = ToStringSerializer.class)
+        private Long id;
+    }
+
+    private abstract static class NextAsText {
+        @JsonSerialize(using = ToStringSerializer.class)
+        private Long next;
+    }
+
+    private abstract static class MissingAsText {
+        @JsonSerialize(contentUsing = ToStringSerializer.class)
+        private List<Long> missing;
+    }
+
+    private abstract static class BookIdAsText {
+        @JsonSerialize(using = ToStringSerializer.class)
+        private Long bookId;
+    }
+}
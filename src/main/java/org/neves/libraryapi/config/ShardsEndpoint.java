@@ -0,0 +1,42 @@
+package org.neves.libraryapi.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.neves.libraryapi.model.repository.ShardedBookRepository;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/shards} mostra quantos livros há em cada shard e {@code POST /actuator/shards}
+ * move para o shard dono os livros que estão fora dele, depois de acrescentar ou retirar shards.
+ */
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+
+    private final ShardedBookRepository repository;
+
+    public ShardsEndpoint(ShardedBookRepository repository) {
+        this.repository = repository;
+    }
+
+    @ReadOperation
+    public Stats stats() {
+        return new Stats(repository.countPerShard(), 0);
+    }
+
+    @WriteOperation
+    public Stats rebalance() {
+        long moved = repository.rebalance();
+        return new Stats(repository.countPerShard(), moved);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        private List<Long> booksPerShard;
+        private long movedBooks;
+    }
+}
@@ -0,0 +1,37 @@
+package org.neves.libraryapi.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os comandos SQL preparados pelo Hibernate na thread atual. Registrado em
+ * {@code hibernate.session_factory.statement_inspector} e lido por {@link RequestMetricsInterceptor}
+ * para publicar a quantidade de comandos por requisição.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    /**
+     * Atributo da requisição com os comandos contados na thread do executor, quando o handler roda fora da
+     * thread do Tomcat ({@link OffloadingHandlerAdapter}).
+     */
+    public static final String OFFLOADED_COUNT_ATTRIBUTE = StatementCountingInspector.class.getName() + ".OFFLOADED_COUNT";
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+
+    public static void clear() {
+        COUNT.remove();
+    }
+}
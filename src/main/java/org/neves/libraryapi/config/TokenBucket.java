@@ -0,0 +1,35 @@
+package org.neves.libraryapi.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balde de fichas sem trava (GCRA): em vez de fichas, guarda em um único {@link AtomicLong} o instante
+ * teórico em que o balde estaria cheio de novo. Admite rajadas de até {@code burst} requisições e, em
+ * seguida, uma a cada {@code 1 / permitsPerSecond} segundo.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+    }
+
+    /**
+     * Consome uma ficha e retorna 0, ou retorna quantos nanossegundos faltam para haver uma ficha.
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long base = Math.max(current, nowNanos);
+            long allowedAt = base - burstToleranceNanos;
+            if (nowNanos < allowedAt)
+                return allowedAt - nowNanos;
+            if (theoreticalArrival.compareAndSet(current, base + emissionIntervalNanos))
+                return 0;
+        }
+    }
+}
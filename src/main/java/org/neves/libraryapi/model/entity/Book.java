@@ -6,21 +6,38 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table
+@Table(indexes = {
+        @Index(name = "idx_book_title", columnList = "title"),
+        @Index(name = "idx_book_author", columnList = "author"),
+        @Index(name = "uk_book_isbn", columnList = "isbn", unique = true)
+})
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_sequence")
+    @SequenceGenerator(name = "book_sequence", sequenceName = "book_sequence", allocationSize = 50)
     private Long id;
 
     private String title;
     private String author;
     private String isbn;
 
+    @Version
+    private Long version;
+
+    private Instant lastModified;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = Instant.now();
+    }
+
 }
@@ -0,0 +1,67 @@
+package org.neves.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.neves.libraryapi.service.BookChangedEvent;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Alteração de livro ainda não entregue aos sistemas externos. É gravada na mesma transação da alteração e
+ * removida depois que o relay a publica; o id, crescente, define a ordem de entrega.
+ * <p>
+ * A sequência avança {@value #ID_BLOCK_SIZE} por consulta e cada valor inicia um bloco de ids. Os blocos são
+ * reservados por transação, no commit, depois que ela já travou os livros que alterou (ver
+ * {@link org.neves.libraryapi.model.repository.BookOutboxRepositoryCustom#insertAll}): uma alteração posterior do
+ * mesmo livro, em qualquer instância, recebe um id maior. Blocos mantidos por instância não garantiriam isso.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "book_outbox")
+public class BookOutboxEvent {
+
+    public static final int ID_BLOCK_SIZE = 100;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_outbox_sequence")
+    @GenericGenerator(name = "book_outbox_sequence", strategy = "enhanced-sequence", parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "book_outbox_sequence"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "" + ID_BLOCK_SIZE),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo")})
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BookChangedEvent.Type type;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    private String title;
+    private String author;
+    private String isbn;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    public static BookOutboxEvent of(BookChangedEvent event) {
+        Book book = event.getBook();
+        return BookOutboxEvent.builder()
+                .type(event.getType())
+                .bookId(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .occurredAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package org.neves.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Linha única que indica qual instância publica o outbox e até quando: só o dono da concessão roda o relay,
+ * para que duas instâncias não publiquem os mesmos lotes nem fora de ordem.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "book_outbox_lease")
+public class BookOutboxLease {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String owner;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,39 @@
+package org.neves.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Primeira resposta dada a uma requisição com {@code Idempotency-Key}, devolvida de novo às repetições da
+ * mesma chave. {@code fingerprint} identifica o corpo da requisição original.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotent_response", indexes = @Index(name = "idx_idempotent_response_created_at", columnList = "createdAt"))
+public class IdempotentResponse {
+
+    @Id
+    @Column(length = 320)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    private int status;
+
+    private String contentType;
+
+    @Lob
+    private byte[] body;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,35 @@
+package org.neves.libraryapi.model.repository;
+
+import org.neves.libraryapi.model.entity.BookOutboxLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Sempre no primário, como o outbox.
+ */
+@Transactional
+public interface BookOutboxLeaseRepository extends JpaRepository<BookOutboxLease, Long> {
+
+    @Override
+    @Transactional
+    boolean existsById(Long id);
+
+    /**
+     * Renova a concessão do dono atual ou assume uma concessão vencida; retorna 0 se outra instância a detém.
+     */
+    @Modifying
+    @Query("update BookOutboxLease l set l.owner = :owner, l.expiresAt = :expiresAt " +
+            "where l.id = :id and (l.owner = :owner or l.expiresAt < :now)")
+    int acquire(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now,
+                @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("update BookOutboxLease l set l.expiresAt = :now where l.id = :id and l.owner = :owner")
+    int release(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now);
+
+}
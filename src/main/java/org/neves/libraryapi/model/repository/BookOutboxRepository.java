@@ -0,0 +1,36 @@
+package org.neves.libraryapi.model.repository;
+
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sempre no primário, mesmo nas consultas: com réplicas de leitura, um outbox lido com atraso reenviaria
+ * eventos já publicados e apagados.
+ */
+@Transactional
+public interface BookOutboxRepository extends JpaRepository<BookOutboxEvent, Long>, BookOutboxRepositoryCustom {
+
+    @Override
+    @Transactional
+    long count();
+
+    @Query("select e from BookOutboxEvent e order by e.id")
+    List<BookOutboxEvent> findOldest(Pageable pageRequest);
+
+    @Query("select min(e.occurredAt) from BookOutboxEvent e")
+    Instant findOldestOccurredAt();
+
+    @Modifying
+    @Query("delete from BookOutboxEvent e where e.id in :ids")
+    int deleteEventsByIdIn(@Param("ids") Collection<Long> ids);
+
+}
@@ -0,0 +1,16 @@
+package org.neves.libraryapi.model.repository;
+
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+
+import java.util.List;
+
+public interface BookOutboxRepositoryCustom {
+
+    /**
+     * Grava os eventos em lotes de JDBC, atribuindo os ids a partir de uma consulta à sequência a cada
+     * {@value BookOutboxEvent#ID_BLOCK_SIZE} eventos. Deve ser chamado depois de todas as escritas da transação,
+     * para que os ids sigam a ordem das alterações de cada livro.
+     */
+    void insertAll(List<BookOutboxEvent> events);
+
+}
@@ -0,0 +1,54 @@
+package org.neves.libraryapi.model.repository;
+
+import org.hibernate.Session;
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.*;
+import java.util.List;
+
+public class BookOutboxRepositoryCustomImpl implements BookOutboxRepositoryCustom {
+
+    private static final String NEXT_ID_BLOCK = "select next value for book_outbox_sequence";
+    private static final String INSERT = "insert into book_outbox " +
+            "(id, type, book_id, title, author, isbn, occurred_at) values (?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<BookOutboxEvent> events) {
+        if (events.isEmpty())
+            return;
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement nextIdBlock = connection.prepareStatement(NEXT_ID_BLOCK);
+                 PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                for (int start = 0; start < events.size(); start += BookOutboxEvent.ID_BLOCK_SIZE) {
+                    long firstId = nextIdBlock(nextIdBlock);
+                    int end = Math.min(start + BookOutboxEvent.ID_BLOCK_SIZE, events.size());
+                    for (int i = start; i < end; i++) {
+                        BookOutboxEvent event = events.get(i);
+                        event.setId(firstId + i - start);
+                        insert.setLong(1, event.getId());
+                        insert.setString(2, event.getType().name());
+                        insert.setLong(3, event.getBookId());
+                        insert.setString(4, event.getTitle());
+                        insert.setString(5, event.getAuthor());
+                        insert.setString(6, event.getIsbn());
+                        insert.setTimestamp(7, Timestamp.from(event.getOccurredAt()));
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            }
+        });
+    }
+
+    private static long nextIdBlock(PreparedStatement nextIdBlock) throws SQLException {
+        try (ResultSet resultSet = nextIdBlock.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -2,9 +2,42 @@ package org.neves.libraryapi.model.repository;
 
 import org.neves.libraryapi.model.entity.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
 
     boolean existsByIsbn(String isbn);
 
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    @Query("select b.id from Book b where b.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * O isbn não muda: entra na condição para que o chamador possa montar o livro atualizado sem relê-lo.
+     */
+    @Modifying
+    @Query("update Book b set b.title = :title, b.author = :author, b.lastModified = :lastModified, " +
+            "b.version = b.version + 1 where b.id = :id and b.version = :version and b.isbn = :isbn")
+    int updateTitleAndAuthor(@Param("id") Long id, @Param("version") Long version, @Param("isbn") String isbn,
+                             @Param("title") String title, @Param("author") String author,
+                             @Param("lastModified") Instant lastModified);
+
+    @Modifying
+    @Query("delete from Book b where b.id = :id")
+    int deleteBookById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Book b where b.id in :ids")
+    int deleteBooksByIdIn(@Param("ids") Collection<Long> ids);
+
 }
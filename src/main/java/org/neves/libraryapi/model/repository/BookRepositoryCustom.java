@@ -0,0 +1,24 @@
+package org.neves.libraryapi.model.repository;
+
+import org.neves.libraryapi.model.entity.Book;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Paginação por chave (seek): retorna até {@code limit} livros com id maior que {@code afterId},
+     * ordenados por id, sem OFFSET nem consulta de contagem.
+     */
+    List<Book> findAllAfter(Specification<Book> specification, Long afterId, int limit);
+
+    /**
+     * Percorre todos os livros em ordem de id com um cursor forward-only, buscando {@code fetchSize} linhas
+     * por vez e desanexando cada livro após {@code action}, para que a memória não cresça com o catálogo.
+     * Deve ser chamado dentro de uma transação. Retorna a quantidade de livros percorridos.
+     */
+    long forEachBook(int fetchSize, Consumer<Book> action);
+
+}
@@ -0,0 +1,51 @@
+package org.neves.libraryapi.model.repository;
+
+import org.hibernate.jpa.QueryHints;
+import org.neves.libraryapi.model.entity.Book;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Book> findAllAfter(Specification<Book> specification, Long afterId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = builder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+
+        Specification<Book> seek = Specification.where(specification).and(BookSpecifications.idGreaterThan(afterId));
+        query.where(seek.toPredicate(root, query, builder))
+                .orderBy(builder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long forEachBook(int fetchSize, Consumer<Book> action) {
+        long count = 0;
+        try (Stream<Book> books = entityManager.createQuery("select b from Book b order by b.id", Book.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()) {
+            for (Book book : (Iterable<Book>) books::iterator) {
+                action.accept(book);
+                entityManager.detach(book);
+                count++;
+            }
+        }
+        return count;
+    }
+}
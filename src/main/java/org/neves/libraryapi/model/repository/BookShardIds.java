@@ -0,0 +1,71 @@
+package org.neves.libraryapi.model.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Ids no estilo snowflake para livros distribuídos em shards. Cada id carrega, em 63 bits:
+ * <pre>
+ *   41 bits  milissegundos desde 2021-01-01
+ *   10 bits  bucket do isbn (0..1023)
+ *    4 bits  instância da aplicação que gerou o id
+ *    8 bits  sequência dentro do milissegundo
+ * </pre>
+ * O bucket é fixo para um isbn e o shard dono é {@code bucket % shards}; por isso o shard de um livro se
+ * calcula tanto pelo isbn quanto pelo id, e mudar a quantidade de shards só exige mover linhas, nunca
+ * trocar ids. A ordem por id segue o milissegundo de criação e é a mesma em todos os shards.
+ */
+public final class BookShardIds {
+
+    public static final int BUCKETS = 1 << 10;
+
+    private static final long EPOCH_MILLIS = 1609459200000L;
+    private static final int SEQUENCE_BITS = 8;
+    private static final int INSTANCE_BITS = 4;
+    private static final int BUCKET_SHIFT = SEQUENCE_BITS + INSTANCE_BITS;
+    private static final int TIMESTAMP_SHIFT = BUCKET_SHIFT + 10;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+
+    private final int instanceId;
+    private long lastMillis;
+    private int sequence;
+
+    public BookShardIds(int instanceId) {
+        if (instanceId < 0 || instanceId >= 1 << INSTANCE_BITS)
+            throw new IllegalArgumentException("Instance id must be between 0 and " + ((1 << INSTANCE_BITS) - 1) + ".");
+        this.instanceId = instanceId;
+    }
+
+    /**
+     * Próximo id para o bucket informado. Esgotada a sequência de um milissegundo, ou se o relógio voltar,
+     * o relógio lógico avança um milissegundo em vez de esperar, mantendo os ids únicos e crescentes.
+     */
+    public synchronized long next(int bucket) {
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0)
+                now++;
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return (now - EPOCH_MILLIS) << TIMESTAMP_SHIFT
+                | (long) bucket << BUCKET_SHIFT
+                | (long) instanceId << SEQUENCE_BITS
+                | sequence;
+    }
+
+    public static int bucketOf(long id) {
+        return (int) (id >>> BUCKET_SHIFT) & (BUCKETS - 1);
+    }
+
+    /**
+     * Bucket do isbn já normalizado para ISBN-13, para que as formas do mesmo livro caiam no mesmo bucket.
+     */
+    public static int bucketOf(String isbn) {
+        CRC32 crc = new CRC32();
+        crc.update(isbn.getBytes(StandardCharsets.US_ASCII));
+        return (int) (crc.getValue() % BUCKETS);
+    }
+}
@@ -0,0 +1,62 @@
+package org.neves.libraryapi.model.repository;
+
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.validation.Isbns;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filtros de busca de livros. Título e autor usam prefixo ({@code LIKE 'x%'}) e isbn igualdade,
+ * para que as consultas possam usar os índices declarados em {@link Book}. O isbn do filtro é convertido
+ * para ISBN-13 sem hífens, a forma em que é gravado.
+ */
+public final class BookSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> matching(Book filter) {
+        return Specification.where(titleStartsWith(filter.getTitle()))
+                .and(authorStartsWith(filter.getAuthor()))
+                .and(isbnEquals(filter.getIsbn()));
+    }
+
+    public static Specification<Book> titleStartsWith(String title) {
+        return startsWith("title", title);
+    }
+
+    public static Specification<Book> authorStartsWith(String author) {
+        return startsWith("author", author);
+    }
+
+    public static Specification<Book> isbnEquals(String isbn) {
+        return (root, query, builder) -> isEmpty(isbn) ? null : builder.equal(root.get("isbn"), normalizeIsbn(isbn));
+    }
+
+    public static Specification<Book> idGreaterThan(Long id) {
+        return (root, query, builder) -> id == null ? null : builder.greaterThan(root.get("id"), id);
+    }
+
+    private static Specification<Book> startsWith(String attribute, String prefix) {
+        return (root, query, builder) -> isEmpty(prefix)
+                ? null
+                : builder.like(root.get(attribute), escapeLike(prefix) + "%", LIKE_ESCAPE);
+    }
+
+    /**
+     * Valores que não são um isbn válido seguem como vieram e simplesmente não encontram livros.
+     */
+    static String normalizeIsbn(String isbn) {
+        String isbn13 = Isbns.toIsbn13(isbn);
+        return isbn13 == null ? isbn : isbn13;
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,27 @@
+package org.neves.libraryapi.model.repository;
+
+import org.neves.libraryapi.model.entity.IdempotentResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Sempre no primário: uma réplica atrasada faria a repetição de uma requisição executá-la de novo.
+ */
+@Transactional
+public interface IdempotentResponseRepository extends JpaRepository<IdempotentResponse, String> {
+
+    @Override
+    @Transactional
+    Optional<IdempotentResponse> findById(String idempotencyKey);
+
+    @Modifying
+    @Query("delete from IdempotentResponse r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+
+}
@@ -0,0 +1,64 @@
+package org.neves.libraryapi.model.repository;
+
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+
+/**
+ * Grava em {@code book_outbox} via R2DBC, para que a linha do evento entre na mesma transação reativa da
+ * alteração do livro. A leitura e a remoção continuam com o relay, pelo JPA.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveBookOutboxRepository {
+
+    private final DatabaseClient client;
+
+    public ReactiveBookOutboxRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Atribui os ids como {@link BookOutboxRepository#insertAll}: uma consulta à sequência a cada
+     * {@value BookOutboxEvent#ID_BLOCK_SIZE} eventos, depois das escritas da transação.
+     */
+    public Mono<Long> insertAll(Collection<BookOutboxEvent> events) {
+        return Flux.fromIterable(events)
+                .buffer(BookOutboxEvent.ID_BLOCK_SIZE)
+                .concatMap(block -> nextIdBlock().flatMapMany(firstId -> Flux.range(0, block.size())
+                        .concatMap(i -> insert(firstId + i, block.get(i)))))
+                .count();
+    }
+
+    private Mono<Long> nextIdBlock() {
+        return client.sql("select next value for book_outbox_sequence")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private Mono<Integer> insert(long id, BookOutboxEvent event) {
+        event.setId(id);
+        DatabaseClient.GenericExecuteSpec insert = client.sql("insert into book_outbox " +
+                "(id, type, book_id, title, author, isbn, occurred_at) values (:id, " +
+                ":type, :bookId, :title, :author, :isbn, :occurredAt)")
+                .bind("id", id)
+                .bind("type", event.getType().name())
+                .bind("bookId", event.getBookId())
+                .bind("occurredAt", LocalDateTime.ofInstant(event.getOccurredAt(), ZoneId.systemDefault()));
+        insert = bindNullable(insert, "title", event.getTitle());
+        insert = bindNullable(insert, "author", event.getAuthor());
+        insert = bindNullable(insert, "isbn", event.getIsbn());
+        return insert.fetch().rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+}
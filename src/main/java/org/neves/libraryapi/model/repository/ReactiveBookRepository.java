@@ -0,0 +1,237 @@
+package org.neves.libraryapi.model.repository;
+
+import io.r2dbc.spi.Row;
+import org.neves.libraryapi.model.entity.Book;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Acesso à tabela {@code book} via R2DBC, usado pelo perfil {@code reactive}. A tabela e a sequência são as
+ * mesmas mapeadas por {@link Book} no JPA; os ids saem de {@code book_sequence} sem colidir com os blocos
+ * reservados pelo Hibernate, pois cada valor lido é o topo de um bloco que ele nunca recebe.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveBookRepository {
+
+    private static final String COLUMNS = "id, title, author, isbn, version, last_modified";
+    private static final Map<String, String> SORTABLE_COLUMNS = new HashMap<>();
+
+    static {
+        SORTABLE_COLUMNS.put("id", "id");
+        SORTABLE_COLUMNS.put("title", "title");
+        SORTABLE_COLUMNS.put("author", "author");
+        SORTABLE_COLUMNS.put("isbn", "isbn");
+        SORTABLE_COLUMNS.put("lastModified", "last_modified");
+    }
+
+    private final DatabaseClient client;
+
+    public ReactiveBookRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Flux<Long> nextIds(int count) {
+        return client.sql("select next value for book_sequence from system_range(1, :count)")
+                .bind("count", count)
+                .map(row -> row.get(0, Long.class))
+                .all();
+    }
+
+    /**
+     * Insere o livro com o id já atribuído, versão inicial 0 e data de alteração atual, preenchendo esses
+     * campos na própria instância.
+     */
+    public Mono<Book> insert(Book book) {
+        Instant now = Instant.now();
+        DatabaseClient.GenericExecuteSpec insert = client.sql("insert into book (" + COLUMNS + ") " +
+                "values (:id, :title, :author, :isbn, 0, :lastModified)")
+                .bind("id", book.getId())
+                .bind("lastModified", toLocalDateTime(now));
+        insert = bindNullable(insert, "title", book.getTitle());
+        insert = bindNullable(insert, "author", book.getAuthor());
+        insert = bindNullable(insert, "isbn", book.getIsbn());
+        return insert.fetch().rowsUpdated().map(inserted -> {
+            book.setVersion(0L);
+            book.setLastModified(now);
+            return book;
+        });
+    }
+
+    public Mono<Book> findById(Long id) {
+        return client.sql("select " + COLUMNS + " from book where id = :id")
+                .bind("id", id)
+                .map(ReactiveBookRepository::toBook)
+                .one();
+    }
+
+    public Flux<Book> findAllById(Collection<Long> ids) {
+        return client.sql("select " + COLUMNS + " from book where id in (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    public Flux<String> findExistingIsbns(Collection<String> isbns) {
+        return client.sql("select isbn from book where isbn in (:isbns)")
+                .bind("isbns", isbns)
+                .map(row -> row.get("isbn", String.class))
+                .all();
+    }
+
+    public Flux<Book> findAll(Book filter, Pageable pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from book");
+        appendWhere(sql, parameters, filter, null);
+        appendOrderBy(sql, pageRequest.getSort());
+        if (pageRequest.isPaged()) {
+            sql.append(" limit :limit offset :offset");
+            parameters.put("limit", pageRequest.getPageSize());
+            parameters.put("offset", pageRequest.getOffset());
+        }
+        return bindAll(client.sql(sql.toString()), parameters)
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    public Mono<Long> count(Book filter) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder sql = new StringBuilder("select count(*) from book");
+        appendWhere(sql, parameters, filter, null);
+        return bindAll(client.sql(sql.toString()), parameters)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Paginação por chave: livros com id maior que {@code afterId} (ou desde o início, se nulo), em ordem de id.
+     */
+    public Flux<Book> findAllAfter(Book filter, Long afterId, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from book");
+        appendWhere(sql, parameters, filter, afterId);
+        sql.append(" order by id limit :limit");
+        parameters.put("limit", limit);
+        return bindAll(client.sql(sql.toString()), parameters)
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    public Mono<Integer> updateTitleAndAuthor(Long id, Long version, String isbn, String title, String author,
+                                              Instant lastModified) {
+        DatabaseClient.GenericExecuteSpec update = client.sql("update book set title = :title, author = :author, " +
+                "last_modified = :lastModified, version = version + 1 where id = :id and version = :version " +
+                "and isbn = :isbn")
+                .bind("id", id)
+                .bind("lastModified", toLocalDateTime(lastModified));
+        update = bindNullable(update, "version", version, Long.class);
+        update = bindNullable(update, "isbn", isbn);
+        update = bindNullable(update, "title", title);
+        update = bindNullable(update, "author", author);
+        return update.fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> deleteById(Long id) {
+        return client.sql("delete from book where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Flux<Long> findExistingIds(Collection<Long> ids) {
+        return client.sql("select id from book where id in (:ids)")
+                .bind("ids", ids)
+                .map(row -> row.get(0, Long.class))
+                .all();
+    }
+
+    public Mono<Integer> deleteAllById(Collection<Long> ids) {
+        return client.sql("delete from book where id in (:ids)")
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static void appendWhere(StringBuilder sql, Map<String, Object> parameters, Book filter, Long afterId) {
+        List<String> conditions = new ArrayList<>();
+        if (filter != null && !isEmpty(filter.getTitle())) {
+            conditions.add("title like :title escape '\\'");
+            parameters.put("title", BookSpecifications.escapeLike(filter.getTitle()) + "%");
+        }
+        if (filter != null && !isEmpty(filter.getAuthor())) {
+            conditions.add("author like :author escape '\\'");
+            parameters.put("author", BookSpecifications.escapeLike(filter.getAuthor()) + "%");
+        }
+        if (filter != null && !isEmpty(filter.getIsbn())) {
+            conditions.add("isbn = :isbn");
+            parameters.put("isbn", BookSpecifications.normalizeIsbn(filter.getIsbn()));
+        }
+        if (afterId != null) {
+            conditions.add("id > :afterId");
+            parameters.put("afterId", afterId);
+        }
+        if (!conditions.isEmpty())
+            sql.append(" where ").append(String.join(" and ", conditions));
+    }
+
+    private static void appendOrderBy(StringBuilder sql, Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORTABLE_COLUMNS.get(order.getProperty());
+            if (column != null)
+                orders.add(column + (order.isAscending() ? " asc" : " desc"));
+        }
+        if (orders.isEmpty())
+            orders.add("id");
+        sql.append(" order by ").append(String.join(", ", orders));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> parameters) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name, String value) {
+        return bindNullable(spec, name, value, String.class);
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                                      T value, Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static Book toBook(Row row) {
+        LocalDateTime lastModified = row.get("last_modified", LocalDateTime.class);
+        return Book.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .author(row.get("author", String.class))
+                .isbn(row.get("isbn", String.class))
+                .version(row.get("version", Long.class))
+                .lastModified(lastModified == null ? null : lastModified.atZone(ZoneId.systemDefault()).toInstant())
+                .build();
+    }
+
+    /**
+     * O Hibernate grava {@link Instant} em TIMESTAMP no fuso da JVM; a conversão aqui segue a mesma regra.
+     */
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,528 @@
+package org.neves.libraryapi.model.repository;
+
+import org.neves.libraryapi.model.entity.Book;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Tabela {@code book} distribuída em N bancos (perfil {@code sharded}). Cada livro mora no shard
+ * {@code bucket % N}, com o bucket calculado do isbn (ver {@link BookShardIds}): consultas por id, isbn,
+ * alteração e remoção vão só ao shard dono; listagens consultam todos os shards em paralelo e combinam os
+ * resultados. Escritas que envolvem vários shards são atômicas por shard, não no conjunto.
+ * <p>
+ * Durante um rebalanceamento um livro pode estar ainda no shard antigo: alterações e remoções que não o acham no
+ * shard dono tentam os demais, e isbns são verificados em todos os shards, já que o índice único só vale dentro
+ * de cada um. Escritas e lotes movidos se excluem mutuamente, então nenhuma escrita se perde na cópia.
+ */
+public class ShardedBookRepository implements AutoCloseable {
+
+    private static final String COLUMNS = "id, title, author, isbn, version, last_modified";
+    private static final int REBALANCE_BATCH_SIZE = 500;
+    private static final Map<String, String> SORTABLE_COLUMNS = new HashMap<>();
+    private static final RowMapper<Book> BOOK_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp lastModified = rs.getTimestamp("last_modified");
+        return Book.builder()
+                .id(rs.getLong("id"))
+                .title(rs.getString("title"))
+                .author(rs.getString("author"))
+                .isbn(rs.getString("isbn"))
+                .version(rs.getLong("version"))
+                .lastModified(lastModified == null ? null : lastModified.toInstant())
+                .build();
+    };
+
+    static {
+        SORTABLE_COLUMNS.put("id", "id");
+        SORTABLE_COLUMNS.put("title", "title");
+        SORTABLE_COLUMNS.put("author", "author");
+        SORTABLE_COLUMNS.put("isbn", "isbn");
+        SORTABLE_COLUMNS.put("lastModified", "last_modified");
+    }
+
+    private final List<DataSource> dataSources;
+    private final List<NamedParameterJdbcTemplate> shards;
+    private final List<TransactionTemplate> transactions;
+    private final BookShardIds ids;
+    private final ExecutorService scatterExecutor;
+    private final ReadWriteLock rebalanceLock = new ReentrantReadWriteLock();
+    private volatile boolean rebalancing;
+
+    public ShardedBookRepository(List<DataSource> dataSources, BookShardIds ids) {
+        this.dataSources = dataSources;
+        this.shards = dataSources.stream().map(NamedParameterJdbcTemplate::new).collect(Collectors.toList());
+        this.transactions = dataSources.stream()
+                .map(dataSource -> new TransactionTemplate(new DataSourceTransactionManager(dataSource)))
+                .collect(Collectors.toList());
+        this.ids = ids;
+        this.scatterExecutor = Executors.newFixedThreadPool(dataSources.size(), runnable -> {
+            Thread thread = new Thread(runnable, "book-shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        shards.forEach(ShardedBookRepository::createSchema);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public boolean isRebalancing() {
+        return rebalancing;
+    }
+
+    public int shardOf(Long id) {
+        return BookShardIds.bucketOf(id) % shards.size();
+    }
+
+    public int shardOf(String isbn) {
+        return BookShardIds.bucketOf(isbn) % shards.size();
+    }
+
+    /**
+     * Insere o livro no shard do seu isbn, atribuindo id, versão inicial 0 e data de alteração atual.
+     */
+    public Book insert(Book book) {
+        assignNewIdentity(book);
+        return whileNotMoving(() -> {
+            rejectMisplacedIsbns(Collections.singletonList(book.getIsbn()));
+            shards.get(shardOf(book.getIsbn())).update("insert into book (" + COLUMNS + ") " +
+                    "values (:id, :title, :author, :isbn, :version, :lastModified)", parameters(book));
+            return book;
+        });
+    }
+
+    /**
+     * Insere os livros agrupados por shard, em lote e em uma transação por shard.
+     */
+    public void insertAll(List<Book> books) {
+        books.forEach(this::assignNewIdentity);
+        whileNotMoving(() -> {
+            rejectMisplacedIsbns(books.stream().map(Book::getIsbn).collect(Collectors.toList()));
+            groupBy(books, book -> shardOf(book.getIsbn())).forEach((shard, shardBooks) ->
+                    transactions.get(shard).executeWithoutResult(status -> shards.get(shard).batchUpdate(
+                            "insert into book (" + COLUMNS + ") values (:id, :title, :author, :isbn, :version, :lastModified)",
+                            shardBooks.stream().map(ShardedBookRepository::parameters).toArray(SqlParameterSource[]::new))));
+            return null;
+        });
+    }
+
+    /**
+     * Busca no shard indicado pelo id; durante um rebalanceamento, se não encontrar, procura nos demais.
+     */
+    public Optional<Book> findById(Long id) {
+        Optional<Book> book = findById(shards.get(shardOf(id)), id);
+        if (book.isPresent() || !rebalancing)
+            return book;
+        return scatter(shard -> findById(shard, id)).stream()
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .findFirst();
+    }
+
+    public List<Book> findAllById(Collection<Long> bookIds) {
+        List<Book> books = new ArrayList<>(bookIds.size());
+        groupBy(bookIds, this::shardOf).forEach((shard, shardIds) -> books.addAll(shards.get(shard).query(
+                "select " + COLUMNS + " from book where id in (:ids)", new MapSqlParameterSource("ids", shardIds),
+                BOOK_ROW_MAPPER)));
+        return books;
+    }
+
+    public boolean existsByIsbn(String isbn) {
+        if (rebalancing)
+            return !findExistingIsbns(Collections.singletonList(isbn)).isEmpty();
+        return !shards.get(shardOf(isbn)).queryForList("select 1 from book where isbn = :isbn limit 1",
+                new MapSqlParameterSource("isbn", isbn), Integer.class).isEmpty();
+    }
+
+    /**
+     * Consulta cada isbn no shard dono ou, durante um rebalanceamento, em todos os shards.
+     */
+    public Set<String> findExistingIsbns(Collection<String> isbns) {
+        Set<String> existing = new HashSet<>();
+        if (rebalancing) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("isbns", new HashSet<>(isbns));
+            scatter(shard -> shard.queryForList("select isbn from book where isbn in (:isbns)", parameters, String.class))
+                    .forEach(existing::addAll);
+            return existing;
+        }
+        groupBy(isbns, this::shardOf).forEach((shard, shardIsbns) -> existing.addAll(shards.get(shard).queryForList(
+                "select isbn from book where isbn in (:isbns)", new MapSqlParameterSource("isbns", shardIsbns),
+                String.class)));
+        return existing;
+    }
+
+    /**
+     * Cada shard devolve as primeiras {@code offset + size} linhas na ordem pedida; a página é recortada da
+     * combinação delas. Páginas profundas custam proporcionalmente mais: prefira {@link #findAllAfter}.
+     */
+    public Page<Book> findAll(Book filter, Pageable pageRequest) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from book");
+        appendWhere(sql, parameters, filter, null);
+        Comparator<Book> order = appendOrderBy(sql, pageRequest.getSort());
+        if (pageRequest.isPaged()) {
+            sql.append(" limit :limit");
+            parameters.put("limit", pageRequest.getOffset() + pageRequest.getPageSize());
+        }
+        List<List<Book>> results = scatter(shard -> shard.query(sql.toString(), parameters, BOOK_ROW_MAPPER));
+        List<Book> books = merge(results, order);
+        if (pageRequest.isUnpaged())
+            return new PageImpl<>(books);
+
+        long total = count(filter);
+        int from = (int) Math.min(pageRequest.getOffset(), books.size());
+        int to = Math.min(from + pageRequest.getPageSize(), books.size());
+        return new PageImpl<>(new ArrayList<>(books.subList(from, to)), pageRequest, total);
+    }
+
+    public long count(Book filter) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder sql = new StringBuilder("select count(*) from book");
+        appendWhere(sql, parameters, filter, null);
+        return scatter(shard -> shard.queryForObject(sql.toString(), parameters, Long.class)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * Paginação por chave sobre todos os shards: basta pedir {@code limit} livros a cada shard e manter os
+     * {@code limit} menores ids.
+     */
+    public List<Book> findAllAfter(Book filter, Long afterId, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from book");
+        appendWhere(sql, parameters, filter, afterId);
+        sql.append(" order by id limit :limit");
+        parameters.put("limit", limit);
+        List<Book> books = merge(scatter(shard -> shard.query(sql.toString(), parameters, BOOK_ROW_MAPPER)),
+                Comparator.comparing(Book::getId));
+        return books.size() > limit ? new ArrayList<>(books.subList(0, limit)) : books;
+    }
+
+    /**
+     * Percorre todo o catálogo em ordem de id, em blocos de {@code fetchSize}, com memória constante.
+     */
+    public long forEachBook(int fetchSize, Consumer<Book> action) {
+        long count = 0;
+        Long afterId = null;
+        List<Book> chunk;
+        do {
+            chunk = findAllAfter(null, afterId, fetchSize);
+            for (Book book : chunk) {
+                action.accept(book);
+                count++;
+            }
+            if (!chunk.isEmpty())
+                afterId = chunk.get(chunk.size() - 1).getId();
+        } while (chunk.size() == fetchSize);
+        return count;
+    }
+
+    public int updateTitleAndAuthor(Long id, Long version, String isbn, String title, String author, Instant lastModified) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("version", version)
+                .addValue("isbn", isbn)
+                .addValue("title", title)
+                .addValue("author", author)
+                .addValue("lastModified", Timestamp.from(lastModified));
+        return updateOwnerFirst(id, "update book set title = :title, author = :author, " +
+                "last_modified = :lastModified, version = version + 1 where id = :id and version = :version " +
+                "and isbn = :isbn", parameters);
+    }
+
+    public int deleteById(Long id) {
+        return updateOwnerFirst(id, "delete from book where id = :id", new MapSqlParameterSource("id", id));
+    }
+
+    /**
+     * @return ids dos livros que existiam e foram removidos
+     */
+    public List<Long> deleteAllById(Collection<Long> bookIds) {
+        return whileNotMoving(() -> {
+            List<Long> deleted = new ArrayList<>();
+            groupBy(bookIds, this::shardOf).forEach((shard, shardIds) -> deleted.addAll(deleteExisting(shard, shardIds)));
+            if (rebalancing) {
+                Set<Long> remaining = new LinkedHashSet<>(bookIds);
+                remaining.removeAll(deleted);
+                for (int shard = 0; shard < shards.size() && !remaining.isEmpty(); shard++) {
+                    List<Long> found = deleteExisting(shard, remaining);
+                    deleted.addAll(found);
+                    remaining.removeAll(found);
+                }
+            }
+            return deleted;
+        });
+    }
+
+    public List<Long> countPerShard() {
+        return scatter(shard -> shard.queryForObject("select count(*) from book", Collections.emptyMap(), Long.class));
+    }
+
+    /**
+     * Move para o shard dono as linhas que estão em outro shard, depois de mudar a quantidade de shards.
+     * Cada lote é lido e movido sem escritas concorrentes, primeiro gravado no destino e só então apagado da
+     * origem, então um livro nunca some nem perde uma alteração; entre os lotes, as escritas seguem valendo.
+     *
+     * @return quantidade de livros movidos
+     */
+    public synchronized long rebalance() {
+        rebalancing = true;
+        try {
+            long moved = 0;
+            for (int source = 0; source < shards.size(); source++) {
+                Long afterId = null;
+                List<Book> batch;
+                do {
+                    MapSqlParameterSource parameters = new MapSqlParameterSource("limit", REBALANCE_BATCH_SIZE)
+                            .addValue("afterId", afterId == null ? Long.MIN_VALUE : afterId);
+                    rebalanceLock.writeLock().lock();
+                    try {
+                        batch = shards.get(source).query("select " + COLUMNS + " from book where id > :afterId " +
+                                "order by id limit :limit", parameters, BOOK_ROW_MAPPER);
+                        moved += move(source, batch);
+                    } finally {
+                        rebalanceLock.writeLock().unlock();
+                    }
+                    if (!batch.isEmpty())
+                        afterId = batch.get(batch.size() - 1).getId();
+                } while (batch.size() == REBALANCE_BATCH_SIZE);
+            }
+            return moved;
+        } finally {
+            rebalancing = false;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        scatterExecutor.shutdownNow();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable)
+                ((AutoCloseable) dataSource).close();
+        }
+    }
+
+    private int move(int source, List<Book> batch) {
+        Map<Integer, List<Book>> misplaced = groupBy(batch.stream()
+                .filter(book -> shardOf(book.getId()) != source)
+                .collect(Collectors.toList()), book -> shardOf(book.getId()));
+        int moved = 0;
+        for (Map.Entry<Integer, List<Book>> target : misplaced.entrySet()) {
+            List<Book> books = target.getValue();
+            transactions.get(target.getKey()).executeWithoutResult(status -> shards.get(target.getKey()).batchUpdate(
+                    "merge into book (" + COLUMNS + ") key (id) values (:id, :title, :author, :isbn, :version, :lastModified)",
+                    books.stream().map(ShardedBookRepository::parameters).toArray(SqlParameterSource[]::new)));
+            shards.get(source).update("delete from book where id in (:ids)", new MapSqlParameterSource("ids",
+                    books.stream().map(Book::getId).collect(Collectors.toList())));
+            moved += books.size();
+        }
+        return moved;
+    }
+
+    /**
+     * Executa uma escrita fora da movimentação de um lote do rebalanceamento.
+     */
+    private <T> T whileNotMoving(Supplier<T> write) {
+        rebalanceLock.readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            rebalanceLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Executa o comando no shard dono do id e, se nenhuma linha mudar durante um rebalanceamento, nos demais.
+     */
+    private int updateOwnerFirst(Long id, String sql, SqlParameterSource parameters) {
+        return whileNotMoving(() -> {
+            int owner = shardOf(id);
+            int updated = shards.get(owner).update(sql, parameters);
+            for (int shard = 0; shard < shards.size() && updated == 0 && rebalancing; shard++) {
+                if (shard != owner)
+                    updated = shards.get(shard).update(sql, parameters);
+            }
+            return updated;
+        });
+    }
+
+    private List<Long> deleteExisting(int shard, Collection<Long> bookIds) {
+        return transactions.get(shard).execute(status -> {
+            List<Long> existingIds = shards.get(shard).queryForList("select id from book where id in (:ids)",
+                    new MapSqlParameterSource("ids", bookIds), Long.class);
+            if (!existingIds.isEmpty())
+                shards.get(shard).update("delete from book where id in (:ids)", new MapSqlParameterSource("ids", existingIds));
+            return existingIds;
+        });
+    }
+
+    /**
+     * Durante um rebalanceamento um isbn pode estar ainda no shard antigo, fora do alcance do índice único do
+     * shard dono.
+     */
+    private void rejectMisplacedIsbns(Collection<String> isbns) {
+        if (!rebalancing || isbns.isEmpty())
+            return;
+        Set<String> existing = findExistingIsbns(isbns);
+        if (!existing.isEmpty())
+            throw new DuplicateKeyException("Isbn já cadastrado: " + existing.iterator().next());
+    }
+
+    private void assignNewIdentity(Book book) {
+        book.setId(ids.next(BookShardIds.bucketOf(book.getIsbn())));
+        book.setVersion(0L);
+        book.setLastModified(Instant.now());
+    }
+
+    private Optional<Book> findById(NamedParameterJdbcTemplate shard, Long id) {
+        return shard.query("select " + COLUMNS + " from book where id = :id", new MapSqlParameterSource("id", id),
+                BOOK_ROW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Executa a consulta em todos os shards em paralelo, devolvendo os resultados na ordem dos shards.
+     */
+    private <T> List<T> scatter(Function<NamedParameterJdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), scatterExecutor))
+                .collect(Collectors.toList());
+        try {
+            return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Combina listas já ordenadas; um livro presente em dois shards no meio de um rebalanceamento aparece uma vez.
+     */
+    private static List<Book> merge(List<List<Book>> results, Comparator<Book> order) {
+        Map<Long, Book> unique = new LinkedHashMap<>();
+        results.stream().flatMap(List::stream).sorted(order).forEach(book -> unique.putIfAbsent(book.getId(), book));
+        return new ArrayList<>(unique.values());
+    }
+
+    private static <T> Map<Integer, List<T>> groupBy(Collection<T> values, Function<T, Integer> shardOf) {
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T value : new LinkedHashSet<>(values)) {
+            groups.computeIfAbsent(shardOf.apply(value), shard -> new ArrayList<>()).add(value);
+        }
+        return groups;
+    }
+
+    private static void appendWhere(StringBuilder sql, Map<String, Object> parameters, Book filter, Long afterId) {
+        List<String> conditions = new ArrayList<>();
+        if (filter != null && !isEmpty(filter.getTitle())) {
+            conditions.add("title like :title escape '\\'");
+            parameters.put("title", BookSpecifications.escapeLike(filter.getTitle()) + "%");
+        }
+        if (filter != null && !isEmpty(filter.getAuthor())) {
+            conditions.add("author like :author escape '\\'");
+            parameters.put("author", BookSpecifications.escapeLike(filter.getAuthor()) + "%");
+        }
+        if (filter != null && !isEmpty(filter.getIsbn())) {
+            conditions.add("isbn = :isbn");
+            parameters.put("isbn", BookSpecifications.normalizeIsbn(filter.getIsbn()));
+        }
+        if (afterId != null) {
+            conditions.add("id > :afterId");
+            parameters.put("afterId", afterId);
+        }
+        if (!conditions.isEmpty())
+            sql.append(" where ").append(String.join(" and ", conditions));
+    }
+
+    /**
+     * Acrescenta o {@code order by} (sempre desempatado por id) e devolve o comparador equivalente, usado para
+     * combinar os resultados dos shards na mesma ordem do banco (nulos primeiro na ordem crescente, como no H2).
+     */
+    private static Comparator<Book> appendOrderBy(StringBuilder sql, Sort sort) {
+        List<String> orders = new ArrayList<>();
+        Comparator<Book> comparator = null;
+        for (Sort.Order order : sort) {
+            String column = SORTABLE_COLUMNS.get(order.getProperty());
+            if (column == null || column.equals("id"))
+                continue;
+            orders.add(column + (order.isAscending() ? " asc" : " desc"));
+            Comparator<Book> next = comparatorFor(order.getProperty(), order.isAscending());
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Sort.Order byId = sort.getOrderFor("id");
+        boolean idAscending = byId == null || byId.isAscending();
+        orders.add(idAscending ? "id asc" : "id desc");
+        Comparator<Book> idOrder = idAscending
+                ? Comparator.comparing(Book::getId)
+                : Comparator.comparing(Book::getId).reversed();
+        sql.append(" order by ").append(String.join(", ", orders));
+        return comparator == null ? idOrder : comparator.thenComparing(idOrder);
+    }
+
+    private static Comparator<Book> comparatorFor(String property, boolean ascending) {
+        Function<Book, Comparable> key;
+        switch (property) {
+            case "title":
+                key = Book::getTitle;
+                break;
+            case "author":
+                key = Book::getAuthor;
+                break;
+            case "isbn":
+                key = Book::getIsbn;
+                break;
+            default:
+                key = Book::getLastModified;
+        }
+        @SuppressWarnings("unchecked")
+        Comparator<Book> comparator = Comparator.comparing(key, Comparator.nullsFirst(Comparator.naturalOrder()));
+        return ascending ? comparator : comparator.reversed();
+    }
+
+    private static MapSqlParameterSource parameters(Book book) {
+        return new MapSqlParameterSource()
+                .addValue("id", book.getId())
+                .addValue("title", book.getTitle())
+                .addValue("author", book.getAuthor())
+                .addValue("isbn", book.getIsbn())
+                .addValue("version", book.getVersion())
+                .addValue("lastModified", book.getLastModified() == null ? null : Timestamp.from(book.getLastModified()));
+    }
+
+    private static void createSchema(NamedParameterJdbcTemplate shard) {
+        shard.getJdbcOperations().execute("create table if not exists book (id bigint not null primary key, " +
+                "title varchar(255), author varchar(255), isbn varchar(255), version bigint, last_modified timestamp)");
+        shard.getJdbcOperations().execute("create index if not exists idx_book_title on book (title)");
+        shard.getJdbcOperations().execute("create index if not exists idx_book_author on book (author)");
+        shard.getJdbcOperations().execute("create unique index if not exists uk_book_isbn on book (isbn)");
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,33 @@
+package org.neves.libraryapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.neves.libraryapi.model.entity.Book;
+
+/**
+ * Publicado pelo {@code BookService} a cada livro criado, alterado ou removido, para que índices e
+ * caches derivados do catálogo se mantenham sincronizados. Em remoções apenas o id do livro é conhecido.
+ */
+@Data
+@AllArgsConstructor
+public class BookChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private Type type;
+    private Book book;
+
+    public static BookChangedEvent created(Book book) {
+        return new BookChangedEvent(Type.CREATED, book);
+    }
+
+    public static BookChangedEvent updated(Book book) {
+        return new BookChangedEvent(Type.UPDATED, book);
+    }
+
+    public static BookChangedEvent deleted(Long id) {
+        return new BookChangedEvent(Type.DELETED, Book.builder().id(id).build());
+    }
+}
@@ -0,0 +1,17 @@
+package org.neves.libraryapi.service;
+
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino das alterações de livros drenadas do outbox. Recebe os eventos em ordem de id; só deve retornar
+ * depois que o lote estiver entregue, pois em seguida ele é removido do outbox. Se falhar, o lote inteiro é
+ * reenviado, então o consumidor deve tolerar eventos repetidos (o id identifica cada um).
+ */
+public interface BookEventSink {
+
+    void publish(List<BookOutboxEvent> events) throws IOException;
+
+}
@@ -0,0 +1,25 @@
+package org.neves.libraryapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.neves.libraryapi.model.entity.Book;
+
+@Data
+@AllArgsConstructor
+public class BookImportResult {
+
+    public enum Status {
+        CREATED, DUPLICATED_ISBN, INVALID
+    }
+
+    private Book book;
+    private Status status;
+
+    public static BookImportResult created(Book book) {
+        return new BookImportResult(book, Status.CREATED);
+    }
+
+    public static BookImportResult duplicatedIsbn(Book book) {
+        return new BookImportResult(book, Status.DUPLICATED_ISBN);
+    }
+}
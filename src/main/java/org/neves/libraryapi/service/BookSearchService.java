@@ -0,0 +1,19 @@
+package org.neves.libraryapi.service;
+
+import org.neves.libraryapi.model.entity.Book;
+
+import java.util.List;
+
+public interface BookSearchService {
+
+    /**
+     * Busca textual por título e autor, aceitando prefixos e pequenos erros de digitação.
+     * Retorna até {@code limit} livros ordenados por relevância.
+     */
+    List<Book> search(String query, int limit);
+
+    /**
+     * Reconstrói o índice a partir do banco de dados.
+     */
+    void rebuild();
+}
@@ -1,16 +1,45 @@
 package org.neves.libraryapi.service;
 
 import org.neves.libraryapi.model.entity.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
 
     Book save(Book book);
 
+    List<BookImportResult> importBooks(List<Book> books);
+
     Optional<Book> getById(Long id);
 
+    List<Book> getAllById(Collection<Long> ids);
+
+    Page<Book> find(Book filter, Pageable pageRequest);
+
+    List<Book> findAfter(Book filter, Long afterId, int size);
+
+    /**
+     * Entrega todos os livros, em ordem de id, para {@code action} sem carregar o catálogo em memória.
+     * Retorna a quantidade de livros exportados.
+     */
+    long exportAll(Consumer<Book> action);
+
     void delete(Book book);
 
+    boolean deleteById(Long id);
+
+    int deleteAllById(Collection<Long> ids);
+
     Book update(Book book);
+
+    /**
+     * Atualiza título e autor em um único UPDATE condicionado à versão do livro e retorna o livro atualizado.
+     * Retorna vazio se o livro não existir ou se a versão informada não for mais a atual.
+     */
+    Optional<Book> updateIfMatch(Book book);
 }
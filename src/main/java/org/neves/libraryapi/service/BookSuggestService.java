@@ -0,0 +1,17 @@
+package org.neves.libraryapi.service;
+
+import java.util.List;
+
+public interface BookSuggestService {
+
+    /**
+     * Sugestões de títulos e autores com alguma palavra começando por {@code prefix}, das compartilhadas por
+     * mais livros para as menos frequentes; empates em ordem alfabética. Não acessa o banco de dados.
+     */
+    List<BookSuggestion> suggest(String prefix, int limit);
+
+    /**
+     * Reconstrói as sugestões a partir do banco de dados.
+     */
+    void rebuild();
+}
@@ -0,0 +1,16 @@
+package org.neves.libraryapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BookSuggestion {
+
+    public enum Type {
+        TITLE, AUTHOR
+    }
+
+    private String text;
+    private Type type;
+}
@@ -0,0 +1,39 @@
+package org.neves.libraryapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Conjunto probabilístico dos isbns cadastrados. Uma resposta negativa é definitiva e dispensa a consulta
+ * ao banco; uma positiva pode ser falsa e precisa ser confirmada no banco.
+ */
+public interface IsbnFilter {
+
+    boolean mightContain(String isbn);
+
+    /**
+     * Registra que um isbn indicado como possivelmente cadastrado não estava no banco.
+     */
+    void recordFalsePositives(int count);
+
+    /**
+     * Recarrega o filtro a partir do banco, descartando isbns de livros removidos.
+     */
+    void rebuild();
+
+    Stats stats();
+
+    @Data
+    @AllArgsConstructor
+    class Stats {
+        private boolean ready;
+        private long expectedInsertions;
+        private long bitSize;
+        private int hashFunctions;
+        private long approximateEntries;
+        private double expectedFalsePositiveProbability;
+        private long checks;
+        private long definiteMisses;
+        private long falsePositives;
+    }
+}
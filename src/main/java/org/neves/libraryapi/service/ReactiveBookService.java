@@ -0,0 +1,50 @@
+package org.neves.libraryapi.service;
+
+import org.neves.libraryapi.model.entity.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Versão não bloqueante do {@link BookService}, com as mesmas regras, usada pelo perfil {@code reactive}.
+ */
+public interface ReactiveBookService {
+
+    Mono<Book> save(Book book);
+
+    Mono<List<BookImportResult>> importBooks(List<Book> books);
+
+    Mono<Book> getById(Long id);
+
+    Flux<Book> getAllById(Collection<Long> ids);
+
+    Mono<Page<Book>> find(Book filter, Pageable pageRequest);
+
+    Flux<Book> findAfter(Book filter, Long afterId, int size);
+
+    /**
+     * Todos os livros que atendem ao filtro, em ordem de id. Os livros são lidos do banco em blocos
+     * conforme o assinante os consome.
+     */
+    Flux<Book> findAll(Book filter);
+
+    Mono<Boolean> deleteById(Long id);
+
+    Mono<Integer> deleteAllById(Collection<Long> ids);
+
+    /**
+     * Atualiza título e autor desde que a versão do livro ainda seja a informada; caso contrário falha com
+     * {@link org.springframework.dao.OptimisticLockingFailureException}.
+     */
+    Mono<Book> update(Book book);
+
+    /**
+     * Atualiza título e autor em um único UPDATE condicionado à versão do livro e emite o livro atualizado.
+     * Termina vazio se o livro não existir ou se a versão informada não for mais a atual.
+     */
+    Mono<Book> updateIfMatch(Book book);
+}
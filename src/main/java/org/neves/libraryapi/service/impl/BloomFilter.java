@@ -0,0 +1,176 @@
+package org.neves.libraryapi.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom de strings, seguro para uso concorrente. Usa um hash de 128 bits (MurmurHash3) e
+ * double hashing para derivar as {@code k} posições de cada elemento. A quantidade de bits ligados é
+ * contada a cada bit novo, sem varrer o vetor nas leituras de estatística.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final LongAdder bitCount = new LongAdder();
+    private final long bitSize;
+    private final int hashFunctions;
+    private final long expectedInsertions;
+
+    BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long size = (long) (-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.bitSize = Math.max(Long.SIZE, (size + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (bitSize / Long.SIZE));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    void put(String value) {
+        long[] hash = murmur3(value.getBytes(StandardCharsets.UTF_8));
+        long combined = hash[0];
+        for (int i = 0; i < hashFunctions; i++) {
+            set((combined & Long.MAX_VALUE) % bitSize);
+            combined += hash[1];
+        }
+    }
+
+    boolean mightContain(String value) {
+        long[] hash = murmur3(value.getBytes(StandardCharsets.UTF_8));
+        long combined = hash[0];
+        for (int i = 0; i < hashFunctions; i++) {
+            if (!get((combined & Long.MAX_VALUE) % bitSize))
+                return false;
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    long bitSize() {
+        return bitSize;
+    }
+
+    int hashFunctions() {
+        return hashFunctions;
+    }
+
+    long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    long bitCount() {
+        return bitCount.sum();
+    }
+
+    /**
+     * Estimativa da quantidade de elementos a partir da fração de bits ligados (Swamidass e Baldi).
+     */
+    long approximateEntries() {
+        double fractionOfBitsSet = (double) bitCount() / bitSize;
+        return Math.round(-Math.log1p(-fractionOfBitsSet) * bitSize / hashFunctions);
+    }
+
+    /**
+     * Probabilidade atual de falso positivo, dada pela fração de bits ligados.
+     */
+    double expectedFalsePositiveProbability() {
+        return Math.pow((double) bitCount() / bitSize, hashFunctions);
+    }
+
+    private void set(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0)
+                return;
+        } while (!bits.compareAndSet(word, current, current | mask));
+        bitCount.increment();
+    }
+
+    private boolean get(long index) {
+        return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    private static long[] murmur3(byte[] data) {
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        long h1 = 0;
+        long h2 = 0;
+        int length = data.length;
+        int blocks = length / 16;
+
+        for (int i = 0; i < blocks; i++) {
+            long k1 = getLong(data, i * 16);
+            long k2 = getLong(data, i * 16 + 8);
+            h1 ^= mixK1(k1, c1, c2);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2, c1, c2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 16;
+        switch (length & 15) {
+            case 15: k2 ^= (long) (data[tail + 14] & 0xff) << 48;
+            case 14: k2 ^= (long) (data[tail + 13] & 0xff) << 40;
+            case 13: k2 ^= (long) (data[tail + 12] & 0xff) << 32;
+            case 12: k2 ^= (long) (data[tail + 11] & 0xff) << 24;
+            case 11: k2 ^= (long) (data[tail + 10] & 0xff) << 16;
+            case 10: k2 ^= (long) (data[tail + 9] & 0xff) << 8;
+            case 9: k2 ^= data[tail + 8] & 0xff;
+                h2 ^= mixK2(k2, c1, c2);
+            case 8: k1 ^= (long) (data[tail + 7] & 0xff) << 56;
+            case 7: k1 ^= (long) (data[tail + 6] & 0xff) << 48;
+            case 6: k1 ^= (long) (data[tail + 5] & 0xff) << 40;
+            case 5: k1 ^= (long) (data[tail + 4] & 0xff) << 32;
+            case 4: k1 ^= (long) (data[tail + 3] & 0xff) << 24;
+            case 3: k1 ^= (long) (data[tail + 2] & 0xff) << 16;
+            case 2: k1 ^= (long) (data[tail + 1] & 0xff) << 8;
+            case 1: k1 ^= data[tail] & 0xff;
+                h1 ^= mixK1(k1, c1, c2);
+            default:
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    private static long mixK1(long k1, long c1, long c2) {
+        return Long.rotateLeft(k1 * c1, 31) * c2;
+    }
+
+    private static long mixK2(long k2, long c1, long c2) {
+        return Long.rotateLeft(k2 * c2, 33) * c1;
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        return (data[offset] & 0xffL)
+                | (data[offset + 1] & 0xffL) << 8
+                | (data[offset + 2] & 0xffL) << 16
+                | (data[offset + 3] & 0xffL) << 24
+                | (data[offset + 4] & 0xffL) << 32
+                | (data[offset + 5] & 0xffL) << 40
+                | (data[offset + 6] & 0xffL) << 48
+                | (data[offset + 7] & 0xffL) << 56;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,105 @@
+package org.neves.libraryapi.service.impl;
+
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.neves.libraryapi.service.BookService;
+import org.neves.libraryapi.service.IsbnFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom dos isbns cadastrados, carregado do {@link BookService} quando a aplicação sobe e alimentado
+ * pelos livros criados. Remoções não apagam bits: o isbn removido continua como possível positivo até o
+ * próximo {@link #rebuild()}. Enquanto a carga inicial não termina, todo isbn é tratado como possivelmente
+ * cadastrado. O serviço é injetado sob demanda ({@link Lazy}) porque ele próprio consulta este filtro.
+ */
+@Service
+public class BloomIsbnFilter implements IsbnFilter {
+
+    private final BookService bookService;
+    private final long minExpectedInsertions;
+    private final double falsePositiveProbability;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+    private final Object swapLock = new Object();
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public BloomIsbnFilter(@Lazy BookService bookService,
+                           @Value("${library.isbn-filter.expected-insertions:1000000}") long minExpectedInsertions,
+                           @Value("${library.isbn-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.bookService = bookService;
+        this.minExpectedInsertions = minExpectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    @Override
+    public boolean mightContain(String isbn) {
+        checks.increment();
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(isbn))
+            return true;
+        definiteMisses.increment();
+        return false;
+    }
+
+    @Override
+    public void recordFalsePositives(int count) {
+        falsePositives.add(count);
+    }
+
+    /**
+     * Monta um novo filtro dimensionado para o dobro do catálogo atual e o troca pelo antigo. Livros criados
+     * durante a carga entram nos dois filtros; a troca e essas inclusões são serializadas, para que nenhum isbn
+     * fique só no filtro descartado.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long books = bookService.find(Book.builder().build(), PageRequest.of(0, 1)).getTotalElements();
+        BloomFilter next = new BloomFilter(Math.max(minExpectedInsertions, books * 2), falsePositiveProbability);
+        synchronized (swapLock) {
+            rebuilding = next;
+        }
+        bookService.exportAll(book -> put(next, book.getIsbn()));
+        synchronized (swapLock) {
+            filter = next;
+            rebuilding = null;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        Book book = event.getBook();
+        if (event.getType() == BookChangedEvent.Type.DELETED)
+            return;
+        synchronized (swapLock) {
+            put(filter, book.getIsbn());
+            put(rebuilding, book.getIsbn());
+        }
+    }
+
+    @Override
+    public Stats stats() {
+        BloomFilter current = filter;
+        if (current == null)
+            return new Stats(false, 0, 0, 0, 0, 1, checks.sum(), definiteMisses.sum(), falsePositives.sum());
+        return new Stats(true, current.expectedInsertions(), current.bitSize(), current.hashFunctions(),
+                current.approximateEntries(), current.expectedFalsePositiveProbability(),
+                checks.sum(), definiteMisses.sum(), falsePositives.sum());
+    }
+
+    private static void put(BloomFilter target, String isbn) {
+        if (target != null && isbn != null)
+            target.put(isbn);
+    }
+}
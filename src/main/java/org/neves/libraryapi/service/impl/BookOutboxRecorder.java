@@ -0,0 +1,64 @@
+package org.neves.libraryapi.service.impl;
+
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+import org.neves.libraryapi.model.repository.BookOutboxRepository;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Grava no outbox os eventos dos serviços JPA e JDBC. No perfil {@code reactive} a escrita acontece numa
+ * transação R2DBC, fora do alcance deste listener, e o próprio serviço grava as linhas.
+ */
+@Component
+@Profile("!reactive")
+public class BookOutboxRecorder {
+
+    private final BookOutboxRepository repository;
+
+    public BookOutboxRecorder(BookOutboxRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Síncrono de propósito: as linhas do outbox entram na transação da alteração. Os eventos da transação são
+     * acumulados e gravados juntos no commit, depois de todas as escritas, com um bloco de ids por transação.
+     */
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        BookOutboxEvent outboxEvent = BookOutboxEvent.of(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            repository.insertAll(Collections.singletonList(outboxEvent));
+            return;
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(outboxEvent);
+    }
+
+    private final class PendingEvents implements TransactionSynchronization {
+
+        final List<BookOutboxEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            repository.insertAll(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BookOutboxRecorder.this);
+        }
+    }
+}
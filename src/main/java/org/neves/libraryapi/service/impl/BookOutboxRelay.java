@@ -0,0 +1,167 @@
+package org.neves.libraryapi.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+import org.neves.libraryapi.model.entity.BookOutboxLease;
+import org.neves.libraryapi.model.repository.BookOutboxLeaseRepository;
+import org.neves.libraryapi.model.repository.BookOutboxRepository;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.neves.libraryapi.service.BookEventSink;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Outbox das alterações de livros. Cada {@link BookChangedEvent} vira uma linha em {@code book_outbox} na
+ * transação da alteração (via {@link BookOutboxRecorder} ou, no perfil {@code reactive}, pelo próprio serviço);
+ * uma única thread drena a tabela em lotes, em ordem de id, para o {@link BookEventSink} e só então apaga o
+ * lote. A entrega é ao menos uma vez e preserva a ordem das
+ * alterações de cada livro; a publicação não acontece na thread da requisição.
+ * <p>
+ * Com várias instâncias, só a dona da concessão em {@code book_outbox_lease} publica; ela a renova a cada lote e
+ * as demais assumem quando ela vence ({@code library.outbox.relay.lease-ms}). O prazo deve ser bem maior que a
+ * publicação de um lote e que a diferença entre os relógios das instâncias.
+ */
+@Slf4j
+@Service
+public class BookOutboxRelay implements DisposableBean {
+
+    private final BookOutboxRepository repository;
+    private final BookOutboxLeaseRepository leaseRepository;
+    private final BookEventSink sink;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final boolean enabled;
+    private final long leaseMillis;
+    private final String owner = UUID.randomUUID().toString();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long pendingEvents;
+    private volatile Instant oldestPendingAt;
+    private final LongAdder publishedEvents = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    public BookOutboxRelay(BookOutboxRepository repository, BookOutboxLeaseRepository leaseRepository,
+                           BookEventSink sink,
+                           @Value("${library.outbox.batch-size:500}") int batchSize,
+                           @Value("${library.outbox.poll-interval-ms:500}") long pollIntervalMillis,
+                           @Value("${library.outbox.relay.enabled:true}") boolean enabled,
+                           @Value("${library.outbox.relay.lease-ms:30000}") long leaseMillis) {
+        this.repository = repository;
+        this.leaseRepository = leaseRepository;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.enabled = enabled;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled)
+            executor.scheduleWithFixedDelay(this::relayPending, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publica os eventos pendentes, lote a lote, até esvaziar o outbox. Se o destino falhar, para no lote que
+     * falhou para que ele seja reenviado, na mesma ordem, na próxima execução. Não publica nada enquanto outra
+     * instância detém a concessão.
+     *
+     * @return quantidade de eventos publicados
+     */
+    public synchronized int relayPending() {
+        int published = 0;
+        try {
+            List<BookOutboxEvent> batch;
+            do {
+                if (!acquireLease())
+                    break;
+                batch = repository.findOldest(PageRequest.of(0, batchSize));
+                if (batch.isEmpty())
+                    break;
+                sink.publish(batch);
+                repository.deleteEventsByIdIn(batch.stream().map(BookOutboxEvent::getId).collect(Collectors.toList()));
+                publishedEvents.add(batch.size());
+                published += batch.size();
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            failedBatches.increment();
+            log.warn("Falha ao publicar eventos do outbox de livros; o lote será reenviado.", e);
+        }
+        refreshBacklog();
+        return published;
+    }
+
+    public long getPendingEvents() {
+        return pendingEvents;
+    }
+
+    /**
+     * Idade do evento pendente mais antigo, ou zero com o outbox vazio.
+     */
+    public Duration getLag() {
+        Instant oldest = oldestPendingAt;
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, Instant.now());
+    }
+
+    public long getPublishedEvents() {
+        return publishedEvents.sum();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        try {
+            leaseRepository.release(BookOutboxLease.ID, owner, Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao liberar a concessão do outbox de livros.", e);
+        }
+    }
+
+    private boolean acquireLease() {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusMillis(leaseMillis);
+        if (leaseRepository.acquire(BookOutboxLease.ID, owner, now, expiresAt) == 1)
+            return true;
+        if (leaseRepository.existsById(BookOutboxLease.ID))
+            return false;
+        try {
+            leaseRepository.saveAndFlush(new BookOutboxLease(BookOutboxLease.ID, owner, expiresAt));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void refreshBacklog() {
+        try {
+            pendingEvents = repository.count();
+            oldestPendingAt = repository.findOldestOccurredAt();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao consultar o outbox de livros.", e);
+        }
+    }
+}
@@ -1,42 +1,259 @@
 package org.neves.libraryapi.service.impl;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.neves.libraryapi.exception.BusinessException;
 import org.neves.libraryapi.model.entity.Book;
 import org.neves.libraryapi.model.repository.BookRepository;
+import org.neves.libraryapi.model.repository.BookSpecifications;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.neves.libraryapi.service.BookImportResult;
 import org.neves.libraryapi.service.BookService;
+import org.neves.libraryapi.service.IsbnFilter;
+import org.neves.libraryapi.validation.Isbns;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
+@Profile("!sharded")
+@CacheConfig(cacheNames = "books")
 public class BookServiceImpl implements BookService {
 
+    private static final String ISBN_UNIQUE_CONSTRAINT = "uk_book_isbn";
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int IMPORT_ATTEMPTS = 3;
+
     private BookRepository repository;
+    private ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<Long, Optional<Book>> lookups = new SingleFlight<>();
+    private IsbnFilter isbnFilter;
+    private TransactionTemplate transactionTemplate;
 
-    public BookServiceImpl(BookRepository repository){
+    public BookServiceImpl(BookRepository repository, ApplicationEventPublisher eventPublisher, IsbnFilter isbnFilter,
+                           PlatformTransactionManager transactionManager){
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.isbnFilter = isbnFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
+    @Transactional
     public Book save(Book book) {
-        if(repository.existsByIsbn(book.getIsbn()))
-            throw new BusinessException("Isbn já cadastrado.");
-        return repository.save(book);
+        normalizeIsbn(book);
+        Book savedBook;
+        try {
+            savedBook = repository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            throw translateIntegrityViolation(e);
+        }
+        eventPublisher.publishEvent(BookChangedEvent.created(savedBook));
+        return savedBook;
+    }
+
+    /**
+     * Um isbn gravado por outra transação depois da consulta derruba a transação do lote inteiro. O lote é então
+     * repetido numa nova transação, consultando todos os isbns direto no banco, e o registro em conflito sai como
+     * {@link BookImportResult.Status#DUPLICATED_ISBN}.
+     */
+    @Override
+    public List<BookImportResult> importBooks(List<Book> books) {
+        books.forEach(BookServiceImpl::normalizeIsbn);
+        List<Book> chunk = books;
+        for (int attempt = 1; ; attempt++) {
+            List<Book> attemptBooks = chunk;
+            boolean retry = attempt > 1;
+            try {
+                return transactionTemplate.execute(status -> importNewBooks(attemptBooks,
+                        retry ? findExistingIsbnsInDatabase(attemptBooks) : findExistingIsbns(attemptBooks)));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == IMPORT_ATTEMPTS || !isIsbnViolation(e))
+                    throw translateIntegrityViolation(e);
+            }
+            // cópias sem o id e a versão atribuídos na tentativa desfeita
+            chunk = books.stream()
+                    .map(book -> book.toBuilder().id(null).version(null).build())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<BookImportResult> importNewBooks(List<Book> books, Set<String> knownIsbns) {
+        List<BookImportResult> results = new ArrayList<>(books.size());
+        List<Book> newBooks = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (knownIsbns.add(book.getIsbn())) {
+                newBooks.add(book);
+                results.add(BookImportResult.created(book));
+            } else {
+                results.add(BookImportResult.duplicatedIsbn(book));
+            }
+        }
+        repository.saveAll(newBooks);
+        repository.flush();
+        newBooks.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.created(book)));
+        return results;
     }
 
+    /**
+     * Com o livro fora do cache, requisições simultâneas pelo mesmo id compartilham uma única consulta.
+     */
     @Override
+    @Cacheable(key = "#id", unless = "#result == null")
     public Optional<Book> getById(Long id) {
-        return repository.findById(id);
+        return lookups.execute(id, () -> repository.findById(id));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Book> getAllById(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Book> books = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            int to = Math.min(from + LOOKUP_CHUNK_SIZE, distinctIds.size());
+            books.addAll(repository.findAllById(distinctIds.subList(from, to)));
+        }
+        return books;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book> find(Book filter, Pageable pageRequest) {
+        return repository.findAll(BookSpecifications.matching(filter), pageRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> findAfter(Book filter, Long afterId, int size) {
+        return repository.findAllAfter(BookSpecifications.matching(filter), afterId, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAll(Consumer<Book> action) {
+        return repository.forEachBook(EXPORT_FETCH_SIZE, action);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(key = "#book.id")
     public void delete(Book book) {
         repository.delete(book);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(book.getId()));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(key = "#id")
+    public boolean deleteById(Long id) {
+        if (repository.deleteBookById(id) == 0)
+            return false;
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(allEntries = true)
+    public int deleteAllById(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            int to = Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size());
+            List<Long> existingIds = repository.findExistingIds(distinctIds.subList(from, to));
+            if (existingIds.isEmpty())
+                continue;
+            deleted += repository.deleteBooksByIdIn(existingIds);
+            existingIds.forEach(id -> eventPublisher.publishEvent(BookChangedEvent.deleted(id)));
+        }
+        return deleted;
     }
 
     @Override
+    @Transactional
+    @CacheEvict(key = "#book.id")
     public Book update(Book book) {
-        return null;
+        if (book == null || book.getId() == null)
+            throw new IllegalArgumentException("Book id cant be null.");
+        Book updatedBook = repository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.updated(updatedBook));
+        return updatedBook;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(key = "#book.id")
+    public Optional<Book> updateIfMatch(Book book) {
+        normalizeIsbn(book);
+        Instant lastModified = Instant.now();
+        if (repository.updateTitleAndAuthor(book.getId(), book.getVersion(), book.getIsbn(),
+                book.getTitle(), book.getAuthor(), lastModified) == 0)
+            return Optional.empty();
+        Book updatedBook = book.toBuilder().version(book.getVersion() + 1).lastModified(lastModified).build();
+        eventPublisher.publishEvent(BookChangedEvent.updated(updatedBook));
+        return Optional.of(updatedBook);
+    }
+
+    /**
+     * Converte o isbn para ISBN-13 sem hífens, para que o mesmo livro informado como ISBN-10 ou com hífens
+     * seja reconhecido como duplicado.
+     */
+    private static void normalizeIsbn(Book book) {
+        String isbn13 = Isbns.toIsbn13(book.getIsbn());
+        if (isbn13 == null)
+            throw new BusinessException("Isbn inválido.");
+        book.setIsbn(isbn13);
+    }
+
+    /**
+     * Consulta no banco apenas os isbns que o filtro indica como possivelmente cadastrados; quando nenhum é,
+     * a consulta é dispensada.
+     */
+    private Set<String> findExistingIsbns(List<Book> books) {
+        Set<String> candidates = books.stream()
+                .map(Book::getIsbn)
+                .filter(isbnFilter::mightContain)
+                .collect(Collectors.toSet());
+        if (candidates.isEmpty())
+            return new HashSet<>();
+
+        Set<String> existing = new HashSet<>(repository.findExistingIsbns(candidates));
+        isbnFilter.recordFalsePositives(candidates.size() - existing.size());
+        return existing;
+    }
+
+    /**
+     * Sem o filtro de isbns, que só recebe os isbns das outras transações depois do commit delas.
+     */
+    private Set<String> findExistingIsbnsInDatabase(List<Book> books) {
+        return new HashSet<>(repository.findExistingIsbns(books.stream().map(Book::getIsbn).collect(Collectors.toSet())));
+    }
+
+    private RuntimeException translateIntegrityViolation(DataIntegrityViolationException e) {
+        return isIsbnViolation(e) ? new BusinessException("Isbn já cadastrado.") : e;
+    }
+
+    private static boolean isIsbnViolation(DataIntegrityViolationException e) {
+        Throwable cause = e.getCause();
+        if (!(cause instanceof ConstraintViolationException))
+            return false;
+        String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+        return constraintName != null && constraintName.toLowerCase().contains(ISBN_UNIQUE_CONSTRAINT);
     }
 
 }
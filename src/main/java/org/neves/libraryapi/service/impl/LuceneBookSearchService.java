@@ -0,0 +1,273 @@
+package org.neves.libraryapi.service.impl;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.neves.libraryapi.service.BookSearchService;
+import org.neves.libraryapi.service.BookService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Índice invertido em memória (Lucene) sobre título e autor. É reconstruído a partir do {@link BookService}
+ * quando a aplicação sobe, lendo os shards no perfil {@code sharded}, e mantido em dia pelos
+ * {@link BookChangedEvent}, aplicados de uma vez ao fim de cada transação.
+ * <p>
+ * As alterações aparecem na busca em até {@code library.search.refresh-interval-ms}: uma thread reabre o
+ * leitor periodicamente, em vez de a cada alteração.
+ */
+@Service
+public class LuceneBookSearchService implements BookSearchService, DisposableBean {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String AUTHOR = "author";
+    private static final float TITLE_BOOST = 2f;
+    private static final float EXACT_BOOST = 3f;
+    private static final float PREFIX_BOOST = 2f;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MIN_TWO_EDITS_LENGTH = 8;
+    private static final int FUZZY_PREFIX_LENGTH = 2;
+    private static final int FUZZY_MAX_EXPANSIONS = 20;
+
+    private final BookService bookService;
+    private final Analyzer analyzer;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    public LuceneBookSearchService(BookService bookService,
+                                   @Value("${library.search.refresh-interval-ms:1000}") long refreshIntervalMillis) throws IOException {
+        this.bookService = bookService;
+        this.analyzer = new FoldingAnalyzer();
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+        double refreshIntervalSeconds = refreshIntervalMillis / 1000d;
+        this.reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager,
+                refreshIntervalSeconds, refreshIntervalSeconds);
+        reopenThread.setName("book-search-refresh");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+    }
+
+    @Override
+    public List<Book> search(String query, int limit) {
+        Query luceneQuery = toQuery(query);
+        if (luceneQuery == null)
+            return Collections.emptyList();
+
+        List<Long> ids = searchIds(luceneQuery, limit);
+        Map<Long, Book> booksById = bookService.getAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream().map(booksById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            writer.deleteAll();
+            bookService.exportAll(this::addToIndex);
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Dentro de uma transação, acumula os eventos e os aplica juntos depois do commit; fora dela (perfil
+     * {@code reactive}, que publica após o commit), aplica na hora.
+     */
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Collections.singletonList(event));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    /**
+     * Torna visíveis as alterações já aplicadas sem esperar a próxima reabertura agendada.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        writer.close();
+    }
+
+    /**
+     * Um livro removido não volta a ser alterado, então as remoções podem ir todas juntas no fim.
+     */
+    private void apply(List<BookChangedEvent> events) {
+        List<Term> deleted = new ArrayList<>();
+        try {
+            for (BookChangedEvent event : events) {
+                Book book = event.getBook();
+                if (event.getType() == BookChangedEvent.Type.DELETED)
+                    deleted.add(idTerm(book.getId()));
+                else
+                    writer.updateDocument(idTerm(book.getId()), toDocument(book));
+            }
+            if (!deleted.isEmpty())
+                writer.deleteDocuments(deleted.toArray(new Term[0]));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Long> searchIds(Query query, int limit) {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc[] hits = searcher.search(query, limit).scoreDocs;
+                List<Long> ids = new ArrayList<>(hits.length);
+                for (ScoreDoc hit : hits)
+                    ids.add(Long.valueOf(searcher.doc(hit.doc).get(ID)));
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cada termo digitado precisa aparecer no título ou no autor, de forma exata, como prefixo ou, em
+     * termos com pelo menos {@value #MIN_FUZZY_LENGTH} letras, com uma edição (duas a partir de
+     * {@value #MIN_TWO_EDITS_LENGTH} letras) após as duas primeiras letras, o que evita percorrer todo o dicionário
+     * de termos. Correspondências exatas e no título pesam mais.
+     */
+    private Query toQuery(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty())
+            return null;
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            addTermQueries(anyField, TITLE, term, TITLE_BOOST);
+            addTermQueries(anyField, AUTHOR, term, 1f);
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private static void addTermQueries(BooleanQuery.Builder builder, String field, String term, float boost) {
+        Term indexTerm = new Term(field, term);
+        builder.add(new BoostQuery(new TermQuery(indexTerm), boost * EXACT_BOOST), BooleanClause.Occur.SHOULD);
+        builder.add(new BoostQuery(new PrefixQuery(indexTerm), boost * PREFIX_BOOST), BooleanClause.Occur.SHOULD);
+        if (term.length() >= MIN_FUZZY_LENGTH)
+            builder.add(new BoostQuery(new FuzzyQuery(indexTerm, term.length() >= MIN_TWO_EDITS_LENGTH ? 2 : 1, FUZZY_PREFIX_LENGTH,
+                    FUZZY_MAX_EXPANSIONS, FuzzyQuery.defaultTranspositions), boost), BooleanClause.Occur.SHOULD);
+    }
+
+    private List<String> analyze(String text) {
+        if (text == null)
+            return Collections.emptyList();
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute termAttribute = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken())
+                terms.add(termAttribute.toString());
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private void addToIndex(Book book) {
+        try {
+            writer.addDocument(toDocument(book));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Document toDocument(Book book) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(book.getId()), Field.Store.YES));
+        if (book.getTitle() != null)
+            document.add(new TextField(TITLE, book.getTitle(), Field.Store.NO));
+        if (book.getAuthor() != null)
+            document.add(new TextField(AUTHOR, book.getAuthor(), Field.Store.NO));
+        return document;
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID, String.valueOf(id));
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        final List<BookChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            apply(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LuceneBookSearchService.this);
+        }
+    }
+
+    /**
+     * Separa palavras, passa para minúsculas e remove acentos, para que "São" encontre "sao".
+     */
+    private static class FoldingAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+    }
+}
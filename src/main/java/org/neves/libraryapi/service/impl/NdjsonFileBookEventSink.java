@@ -0,0 +1,43 @@
+package org.neves.libraryapi.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+import org.neves.libraryapi.service.BookEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * Acrescenta cada evento como uma linha JSON ao arquivo configurado e só retorna depois de sincronizar o
+ * arquivo com o disco.
+ */
+@Service
+public class NdjsonFileBookEventSink implements BookEventSink {
+
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
+    private final ObjectWriter writer;
+    private final File file;
+
+    public NdjsonFileBookEventSink(ObjectMapper objectMapper,
+                                   @Value("${library.outbox.file:book-events.ndjson}") String file) {
+        this.writer = objectMapper.writerFor(BookOutboxEvent.class);
+        this.file = new File(file);
+    }
+
+    @Override
+    public synchronized void publish(List<BookOutboxEvent> events) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(file, true)) {
+            OutputStream buffered = new BufferedOutputStream(stream);
+            for (BookOutboxEvent event : events) {
+                buffered.write(writer.writeValueAsBytes(event));
+                buffered.write(LINE_SEPARATOR);
+            }
+            buffered.flush();
+            stream.getFD().sync();
+        }
+    }
+}
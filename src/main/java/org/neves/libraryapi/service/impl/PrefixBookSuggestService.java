@@ -0,0 +1,341 @@
+package org.neves.libraryapi.service.impl;
+
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.neves.libraryapi.service.BookService;
+import org.neves.libraryapi.service.BookSuggestService;
+import org.neves.libraryapi.service.BookSuggestion;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+/**
+ * Sugestões mantidas em uma trie de palavras normalizadas em memória. Cada título e autor distinto é uma
+ * entrada que conta quantos livros o compartilham; cada nó guarda as {@value #TOP_K} entradas mais frequentes
+ * da sua subárvore, então um prefixo de uma palavra é respondido em {@code O(tamanho do prefixo)}. Prefixos com
+ * várias palavras percorrem, em ordem de frequência, as entradas da palavra completa mais rara, até
+ * {@value #MAX_SCANNED_ENTRIES} entradas.
+ * <p>
+ * As leituras não usam trava: filhos e listas dos nós são arrays trocados inteiros a cada alteração. As escritas
+ * são serializadas.
+ */
+@Service
+public class PrefixBookSuggestService implements BookSuggestService {
+
+    static final int TOP_K = 10;
+    static final int MAX_SCANNED_ENTRIES = 2048;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Comparator<Entry> RANKING = Comparator.<Entry>comparingInt(entry -> -entry.count)
+            .thenComparing(entry -> entry.normalized)
+            .thenComparing(entry -> entry.suggestion.getText())
+            .thenComparing(entry -> entry.suggestion.getType());
+
+    private final BookService bookService;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Long, Entry[]> indexedBooks = new HashMap<>();
+    private volatile Node root = new Node('\0', 0);
+
+    public PrefixBookSuggestService(BookService bookService) {
+        this.bookService = bookService;
+    }
+
+    /**
+     * Retorna no máximo {@value #TOP_K} sugestões.
+     */
+    @Override
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        int size = Math.min(limit, TOP_K);
+        if (normalizedPrefix.isEmpty() || size <= 0)
+            return Collections.emptyList();
+
+        int lastSpace = normalizedPrefix.lastIndexOf(' ');
+        if (lastSpace < 0) {
+            Node node = find(root, normalizedPrefix);
+            if (node == null)
+                return Collections.emptyList();
+            Entry[] top = node.top;
+            List<BookSuggestion> result = new ArrayList<>(Math.min(size, top.length));
+            for (int i = 0; i < top.length && i < size; i++)
+                result.add(top[i].suggestion);
+            return result;
+        }
+        return suggestWords(normalizedPrefix, normalizedPrefix.substring(0, lastSpace).split(" "), size);
+    }
+
+    /**
+     * As palavras antes do último espaço estão completas: toda sugestão válida contém cada uma delas, então
+     * basta filtrar as entradas da palavra com menos entradas.
+     */
+    private List<BookSuggestion> suggestWords(String normalizedPrefix, String[] completeWords, int size) {
+        Node root = this.root;
+        Node rarest = null;
+        for (String word : completeWords) {
+            Node node = find(root, word);
+            if (node == null || node.entryCount == 0)
+                return Collections.emptyList();
+            if (rarest == null || node.entryCount < rarest.entryCount)
+                rarest = node;
+        }
+
+        String wordStart = ' ' + normalizedPrefix;
+        List<BookSuggestion> result = new ArrayList<>(size);
+        int scanned = 0;
+        for (Entry entry : rarest.entries) {
+            if (++scanned > MAX_SCANNED_ENTRIES)
+                break;
+            if (entry.normalized.startsWith(normalizedPrefix) || entry.normalized.contains(wordStart)) {
+                result.add(entry.suggestion);
+                if (result.size() == size)
+                    break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        root = new Node('\0', 0);
+        entries.clear();
+        indexedBooks.clear();
+        bookService.exportAll(this::add);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookChanged(BookChangedEvent event) {
+        Book book = event.getBook();
+        if (event.getType() != BookChangedEvent.Type.CREATED)
+            remove(book.getId());
+        if (event.getType() != BookChangedEvent.Type.DELETED)
+            add(book);
+    }
+
+    private void add(Book book) {
+        if (indexedBooks.containsKey(book.getId()))
+            return;
+        Entry[] bookEntries = {entryOf(BookSuggestion.Type.TITLE, book.getTitle()),
+                entryOf(BookSuggestion.Type.AUTHOR, book.getAuthor())};
+        indexedBooks.put(book.getId(), bookEntries);
+        for (Entry entry : bookEntries) {
+            if (entry != null)
+                increment(entry);
+        }
+    }
+
+    private void remove(Long id) {
+        Entry[] bookEntries = indexedBooks.remove(id);
+        if (bookEntries == null)
+            return;
+        for (Entry entry : bookEntries) {
+            if (entry != null)
+                decrement(entry);
+        }
+    }
+
+    private Entry entryOf(BookSuggestion.Type type, String text) {
+        if (text == null || text.trim().isEmpty())
+            return null;
+        return entries.computeIfAbsent(type.name().charAt(0) + text,
+                key -> new Entry(new BookSuggestion(text, type), normalize(text)));
+    }
+
+    /**
+     * Com a contagem maior a entrada só pode subir nas listas dos nós das suas palavras.
+     */
+    private void increment(Entry entry) {
+        Node root = this.root;
+        for (String word : entry.words)
+            descend(root, word).removeEntry(entry);
+        entry.count++;
+        for (String word : entry.words) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.childOrCreate(word.charAt(i));
+                offer(node, entry);
+            }
+            node.addEntry(entry);
+        }
+    }
+
+    /**
+     * Com a contagem menor outra entrada pode tomar o lugar desta; os nós que a listavam são recalculados
+     * das folhas para a raiz, a partir das listas dos filhos.
+     */
+    private void decrement(Entry entry) {
+        Node root = this.root;
+        for (String word : entry.words)
+            descend(root, word).removeEntry(entry);
+        entry.count--;
+        if (entry.count == 0)
+            entries.remove(entry.suggestion.getType().name().charAt(0) + entry.suggestion.getText());
+        else
+            for (String word : entry.words)
+                descend(root, word).addEntry(entry);
+
+        List<Node> affected = new ArrayList<>();
+        for (String word : entry.words) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.child(word.charAt(i));
+                if (indexOf(node.top, entry) >= 0 && !affected.contains(node))
+                    affected.add(node);
+            }
+        }
+        affected.sort(Comparator.comparingInt((Node node) -> node.depth).reversed());
+        affected.forEach(PrefixBookSuggestService::recompute);
+    }
+
+    private static void offer(Node node, Entry entry) {
+        Entry[] top = node.top;
+        Entry[] updated;
+        if (indexOf(top, entry) >= 0) {
+            updated = top.clone();
+        } else if (top.length < TOP_K) {
+            updated = Arrays.copyOf(top, top.length + 1);
+            updated[top.length] = entry;
+        } else if (RANKING.compare(entry, top[top.length - 1]) < 0) {
+            updated = top.clone();
+            updated[updated.length - 1] = entry;
+        } else {
+            return;
+        }
+        Arrays.sort(updated, RANKING);
+        node.top = updated;
+    }
+
+    private static void recompute(Node node) {
+        TreeSet<Entry> best = new TreeSet<>(RANKING);
+        if (node.entries != null) {
+            for (Entry entry : node.entries) {
+                if (best.size() == TOP_K)
+                    break;
+                best.add(entry);
+            }
+        }
+        for (Node child : node.children)
+            Collections.addAll(best, child.top);
+        while (best.size() > TOP_K)
+            best.pollLast();
+        node.top = best.toArray(NO_ENTRIES);
+    }
+
+    private static int indexOf(Entry[] top, Entry entry) {
+        for (int i = 0; i < top.length; i++) {
+            if (top[i] == entry)
+                return i;
+        }
+        return -1;
+    }
+
+    private static Node find(Node root, String word) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++)
+            node = node.child(word.charAt(i));
+        return node;
+    }
+
+    private static Node descend(Node root, String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++)
+            node = node.childOrCreate(word.charAt(i));
+        return node;
+    }
+
+    private static String normalize(String text) {
+        if (text == null)
+            return "";
+        String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(withoutDiacritics.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    /**
+     * Um título ou autor distinto. A contagem só muda fora dos conjuntos ordenados que a usam.
+     */
+    private static final class Entry {
+
+        final BookSuggestion suggestion;
+        final String normalized;
+        final String[] words;
+        int count;
+
+        Entry(BookSuggestion suggestion, String normalized) {
+            this.suggestion = suggestion;
+            this.normalized = normalized;
+            this.words = new LinkedHashSet<>(Arrays.asList(normalized.split(" "))).toArray(new String[0]);
+        }
+    }
+
+    private static final class Node {
+
+        final char letter;
+        final int depth;
+        volatile Node[] children = NO_CHILDREN;
+        volatile Entry[] top = NO_ENTRIES;
+        volatile Set<Entry> entries;
+        volatile int entryCount;
+
+        Node(char letter, int depth) {
+            this.letter = letter;
+            this.depth = depth;
+        }
+
+        /**
+         * Mantém a quantidade de entradas à parte: {@code size()} do conjunto percorre todos os elementos.
+         */
+        void addEntry(Entry entry) {
+            if (entries == null)
+                entries = new ConcurrentSkipListSet<>(RANKING);
+            if (entries.add(entry))
+                entryCount++;
+        }
+
+        void removeEntry(Entry entry) {
+            if (entries != null && entries.remove(entry))
+                entryCount--;
+        }
+
+        Node child(char letter) {
+            Node[] nodes = children;
+            int low = 0;
+            int high = nodes.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char current = nodes[middle].letter;
+                if (current < letter)
+                    low = middle + 1;
+                else if (current > letter)
+                    high = middle - 1;
+                else
+                    return nodes[middle];
+            }
+            return null;
+        }
+
+        Node childOrCreate(char letter) {
+            Node child = child(letter);
+            if (child != null)
+                return child;
+            Node[] nodes = children;
+            int position = 0;
+            while (position < nodes.length && nodes[position].letter < letter)
+                position++;
+            Node[] updated = new Node[nodes.length + 1];
+            System.arraycopy(nodes, 0, updated, 0, position);
+            System.arraycopy(nodes, position, updated, position + 1, nodes.length - position);
+            updated[position] = child = new Node(letter, depth + 1);
+            children = updated;
+            return child;
+        }
+    }
+}
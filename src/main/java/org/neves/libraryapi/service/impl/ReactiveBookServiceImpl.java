@@ -0,0 +1,255 @@
+package org.neves.libraryapi.service.impl;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.neves.libraryapi.exception.BusinessException;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+import org.neves.libraryapi.model.repository.ReactiveBookOutboxRepository;
+import org.neves.libraryapi.model.repository.ReactiveBookRepository;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.neves.libraryapi.service.BookImportResult;
+import org.neves.libraryapi.service.IsbnFilter;
+import org.neves.libraryapi.service.ReactiveBookService;
+import org.neves.libraryapi.validation.Isbns;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * O gerenciador de transações R2DBC é criado aqui em vez de exposto como bean: um segundo
+ * {@code TransactionManager} no contexto faria o Spring Boot deixar de criar o do JPA. Cada escrita grava suas
+ * linhas do outbox na própria transação R2DBC; os {@link BookChangedEvent} só são publicados após o commit.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private static final String ISBN_UNIQUE_CONSTRAINT = "uk_book_isbn";
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+    private static final int STREAM_CHUNK_SIZE = 1000;
+
+    private ReactiveBookRepository repository;
+    private ReactiveBookOutboxRepository outboxRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private IsbnFilter isbnFilter;
+    private TransactionalOperator transactionalOperator;
+
+    public ReactiveBookServiceImpl(ReactiveBookRepository repository, ReactiveBookOutboxRepository outboxRepository,
+                                   ConnectionFactory connectionFactory, ApplicationEventPublisher eventPublisher,
+                                   IsbnFilter isbnFilter) {
+        this.repository = repository;
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.isbnFilter = isbnFilter;
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Override
+    public Mono<Book> save(Book book) {
+        return Mono.fromRunnable(() -> normalizeIsbn(book))
+                .then(writeAndPublish(repository.nextIds(1).next()
+                        .flatMap(id -> {
+                            book.setId(id);
+                            return repository.insert(book);
+                        }), savedBook -> Collections.singletonList(BookChangedEvent.created(savedBook))))
+                .onErrorMap(DataIntegrityViolationException.class, this::translateIntegrityViolation);
+    }
+
+    @Override
+    public Mono<List<BookImportResult>> importBooks(List<Book> books) {
+        return Mono.fromRunnable(() -> books.forEach(ReactiveBookServiceImpl::normalizeIsbn))
+                .then(Mono.defer(() -> findExistingIsbns(books)))
+                .flatMap(knownIsbns -> {
+                    List<BookImportResult> results = new ArrayList<>(books.size());
+                    List<Book> newBooks = new ArrayList<>(books.size());
+                    for (Book book : books) {
+                        if (knownIsbns.add(book.getIsbn())) {
+                            newBooks.add(book);
+                            results.add(BookImportResult.created(book));
+                        } else {
+                            results.add(BookImportResult.duplicatedIsbn(book));
+                        }
+                    }
+                    return writeAndPublish(insertAll(newBooks), inserted -> newBooks.stream()
+                                    .map(BookChangedEvent::created)
+                                    .collect(Collectors.toList()))
+                            .onErrorMap(DataIntegrityViolationException.class, this::translateIntegrityViolation)
+                            .thenReturn(results);
+                });
+    }
+
+    @Override
+    public Mono<Book> getById(Long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public Flux<Book> getAllById(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        return Flux.range(0, (distinctIds.size() + LOOKUP_CHUNK_SIZE - 1) / LOOKUP_CHUNK_SIZE)
+                .concatMap(chunk -> repository.findAllById(distinctIds.subList(
+                        chunk * LOOKUP_CHUNK_SIZE, Math.min((chunk + 1) * LOOKUP_CHUNK_SIZE, distinctIds.size()))));
+    }
+
+    @Override
+    public Mono<Page<Book>> find(Book filter, Pageable pageRequest) {
+        return repository.findAll(filter, pageRequest).collectList()
+                .zipWith(repository.count(filter))
+                .map(pageAndTotal -> new PageImpl<>(pageAndTotal.getT1(), pageRequest, pageAndTotal.getT2()));
+    }
+
+    @Override
+    public Flux<Book> findAfter(Book filter, Long afterId, int size) {
+        return repository.findAllAfter(filter, afterId, size);
+    }
+
+    @Override
+    public Flux<Book> findAll(Book filter) {
+        return findAllAfter(filter, null);
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(Long id) {
+        return writeAndPublish(repository.deleteById(id), deleted -> deleted > 0
+                        ? Collections.singletonList(BookChangedEvent.deleted(id))
+                        : Collections.emptyList())
+                .map(deleted -> deleted > 0);
+    }
+
+    @Override
+    public Mono<Integer> deleteAllById(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        return writeAndPublish(Flux.range(0, (distinctIds.size() + DELETE_CHUNK_SIZE - 1) / DELETE_CHUNK_SIZE)
+                .concatMap(chunk -> repository.findExistingIds(distinctIds.subList(
+                        chunk * DELETE_CHUNK_SIZE, Math.min((chunk + 1) * DELETE_CHUNK_SIZE, distinctIds.size())))
+                        .collectList()
+                        .flatMapMany(existingIds -> existingIds.isEmpty()
+                                ? Flux.<Long>empty()
+                                : repository.deleteAllById(existingIds).thenMany(Flux.fromIterable(existingIds))))
+                .collectList(), deletedIds -> deletedIds.stream()
+                        .map(BookChangedEvent::deleted)
+                        .collect(Collectors.toList()))
+                .map(List::size);
+    }
+
+    @Override
+    public Mono<Book> update(Book book) {
+        if (book == null || book.getId() == null)
+            return Mono.error(new IllegalArgumentException("Book id cant be null."));
+        Instant now = Instant.now();
+        return writeAndPublish(repository.updateTitleAndAuthor(
+                book.getId(), book.getVersion(), book.getIsbn(), book.getTitle(), book.getAuthor(), now)
+                .flatMap(updated -> {
+                    if (updated == 0)
+                        return Mono.error(new OptimisticLockingFailureException("Book " + book.getId() + " was changed."));
+                    return Mono.just(book.toBuilder()
+                            .version(book.getVersion() + 1)
+                            .lastModified(now)
+                            .build());
+                }), updatedBook -> Collections.singletonList(BookChangedEvent.updated(updatedBook)));
+    }
+
+    @Override
+    public Mono<Book> updateIfMatch(Book book) {
+        Instant now = Instant.now();
+        return Mono.fromRunnable(() -> normalizeIsbn(book))
+                .then(writeAndPublish(Mono.defer(() -> repository.updateTitleAndAuthor(
+                        book.getId(), book.getVersion(), book.getIsbn(), book.getTitle(), book.getAuthor(), now))
+                        .map(updated -> updated == 0
+                                ? Optional.<Book>empty()
+                                : Optional.of(book.toBuilder().version(book.getVersion() + 1).lastModified(now).build())),
+                        updatedBook -> updatedBook
+                                .map(found -> Collections.singletonList(BookChangedEvent.updated(found)))
+                                .orElse(Collections.emptyList())))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Lê o próximo bloco só quando o anterior tiver sido consumido, mantendo a memória constante.
+     */
+    private Flux<Book> findAllAfter(Book filter, Long afterId) {
+        return repository.findAllAfter(filter, afterId, STREAM_CHUNK_SIZE).collectList()
+                .flatMapMany(chunk -> chunk.size() < STREAM_CHUNK_SIZE
+                        ? Flux.fromIterable(chunk)
+                        : Flux.fromIterable(chunk).concatWith(Flux.defer(() ->
+                                findAllAfter(filter, chunk.get(chunk.size() - 1).getId()))));
+    }
+
+    private Mono<Long> insertAll(List<Book> books) {
+        if (books.isEmpty())
+            return Mono.just(0L);
+        return repository.nextIds(books.size())
+                .zipWithIterable(books, (id, book) -> {
+                    book.setId(id);
+                    return book;
+                })
+                .concatMap(repository::insert)
+                .count();
+    }
+
+    /**
+     * Executa a escrita e grava no outbox os eventos que ela produziu, na mesma transação; os eventos só são
+     * publicados aos índices locais depois do commit, fora do event loop: os listeners atualizam índices em
+     * memória de forma síncrona.
+     */
+    private <T> Mono<T> writeAndPublish(Mono<T> write, Function<T, List<BookChangedEvent>> eventsOf) {
+        return write.flatMap(result -> {
+                    List<BookChangedEvent> events = eventsOf.apply(result);
+                    return outboxRepository.insertAll(events.stream().map(BookOutboxEvent::of).collect(Collectors.toList()))
+                            .thenReturn(Tuples.of(result, events));
+                })
+                .as(transactionalOperator::transactional)
+                .publishOn(Schedulers.boundedElastic())
+                .map(written -> {
+                    written.getT2().forEach(eventPublisher::publishEvent);
+                    return written.getT1();
+                });
+    }
+
+    private static void normalizeIsbn(Book book) {
+        String isbn13 = Isbns.toIsbn13(book.getIsbn());
+        if (isbn13 == null)
+            throw new BusinessException("Isbn inválido.");
+        book.setIsbn(isbn13);
+    }
+
+    private Mono<Set<String>> findExistingIsbns(List<Book> books) {
+        Set<String> candidates = new HashSet<>();
+        for (Book book : books) {
+            if (isbnFilter.mightContain(book.getIsbn()))
+                candidates.add(book.getIsbn());
+        }
+        if (candidates.isEmpty())
+            return Mono.just(new HashSet<>());
+
+        return repository.findExistingIsbns(candidates).collectList().map(found -> {
+            Set<String> existing = new HashSet<>(found);
+            isbnFilter.recordFalsePositives(candidates.size() - existing.size());
+            return existing;
+        });
+    }
+
+    private RuntimeException translateIntegrityViolation(Throwable e) {
+        String message = e.getMessage();
+        if (message != null && message.toLowerCase().contains(ISBN_UNIQUE_CONSTRAINT))
+            return new BusinessException("Isbn já cadastrado.");
+        return e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+    }
+}
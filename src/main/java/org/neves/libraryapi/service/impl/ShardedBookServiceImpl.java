@@ -0,0 +1,187 @@
+package org.neves.libraryapi.service.impl;
+
+import org.neves.libraryapi.exception.BusinessException;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.repository.ShardedBookRepository;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.neves.libraryapi.service.BookImportResult;
+import org.neves.libraryapi.service.BookService;
+import org.neves.libraryapi.validation.Isbns;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * {@link BookService} sobre o {@link ShardedBookRepository} (perfil {@code sharded}). As transações
+ * anotadas aqui são as do banco principal, onde fica o outbox: os eventos continuam sendo gravados e
+ * publicados depois da escrita no shard.
+ */
+@Service
+@Profile("sharded")
+@CacheConfig(cacheNames = "books")
+public class ShardedBookServiceImpl implements BookService {
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final ShardedBookRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<Long, Optional<Book>> lookups = new SingleFlight<>();
+
+    public ShardedBookServiceImpl(ShardedBookRepository repository, ApplicationEventPublisher eventPublisher) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public Book save(Book book) {
+        normalizeIsbn(book);
+        Book savedBook;
+        try {
+            savedBook = repository.insert(book);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("Isbn já cadastrado.");
+        }
+        eventPublisher.publishEvent(BookChangedEvent.created(savedBook));
+        return savedBook;
+    }
+
+    /**
+     * Os isbns já cadastrados são consultados diretamente nos shards donos: o filtro de isbns é carregado
+     * do banco principal e não conhece os livros gravados nos shards antes da última inicialização.
+     */
+    @Override
+    @Transactional
+    public List<BookImportResult> importBooks(List<Book> books) {
+        books.forEach(ShardedBookServiceImpl::normalizeIsbn);
+        Set<String> knownIsbns = repository.findExistingIsbns(
+                books.stream().map(Book::getIsbn).collect(Collectors.toSet()));
+
+        List<BookImportResult> results = new ArrayList<>(books.size());
+        List<Book> newBooks = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (knownIsbns.add(book.getIsbn())) {
+                newBooks.add(book);
+                results.add(BookImportResult.created(book));
+            } else {
+                results.add(BookImportResult.duplicatedIsbn(book));
+            }
+        }
+        try {
+            repository.insertAll(newBooks);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("Isbn já cadastrado.");
+        }
+        newBooks.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.created(book)));
+        return results;
+    }
+
+    /**
+     * Com o livro fora do cache, requisições simultâneas pelo mesmo id compartilham uma única consulta.
+     */
+    @Override
+    @Cacheable(key = "#id", unless = "#result == null")
+    public Optional<Book> getById(Long id) {
+        return lookups.execute(id, () -> repository.findById(id));
+    }
+
+    @Override
+    public List<Book> getAllById(Collection<Long> ids) {
+        return repository.findAllById(ids);
+    }
+
+    @Override
+    public Page<Book> find(Book filter, Pageable pageRequest) {
+        return repository.findAll(filter, pageRequest);
+    }
+
+    @Override
+    public List<Book> findAfter(Book filter, Long afterId, int size) {
+        return repository.findAllAfter(filter, afterId, size);
+    }
+
+    @Override
+    public long exportAll(Consumer<Book> action) {
+        return repository.forEachBook(EXPORT_FETCH_SIZE, action);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(key = "#book.id")
+    public void delete(Book book) {
+        repository.deleteById(book.getId());
+        eventPublisher.publishEvent(BookChangedEvent.deleted(book.getId()));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(key = "#id")
+    public boolean deleteById(Long id) {
+        if (repository.deleteById(id) == 0)
+            return false;
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(allEntries = true)
+    public int deleteAllById(Collection<Long> ids) {
+        List<Long> deletedIds = repository.deleteAllById(ids);
+        deletedIds.forEach(id -> eventPublisher.publishEvent(BookChangedEvent.deleted(id)));
+        return deletedIds.size();
+    }
+
+    /**
+     * Só título e autor podem mudar: o isbn define o shard do livro.
+     */
+    @Override
+    @Transactional
+    @CacheEvict(key = "#book.id")
+    public Book update(Book book) {
+        if (book == null || book.getId() == null)
+            throw new IllegalArgumentException("Book id cant be null.");
+        Instant lastModified = Instant.now();
+        if (repository.updateTitleAndAuthor(book.getId(), book.getVersion(), book.getIsbn(),
+                book.getTitle(), book.getAuthor(), lastModified) == 0)
+            throw new ObjectOptimisticLockingFailureException(Book.class, book.getId());
+        book.setVersion(book.getVersion() + 1);
+        book.setLastModified(lastModified);
+        eventPublisher.publishEvent(BookChangedEvent.updated(book));
+        return book;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(key = "#book.id")
+    public Optional<Book> updateIfMatch(Book book) {
+        normalizeIsbn(book);
+        Instant lastModified = Instant.now();
+        if (repository.updateTitleAndAuthor(book.getId(), book.getVersion(), book.getIsbn(),
+                book.getTitle(), book.getAuthor(), lastModified) == 0)
+            return Optional.empty();
+        Book updatedBook = book.toBuilder().version(book.getVersion() + 1).lastModified(lastModified).build();
+        eventPublisher.publishEvent(BookChangedEvent.updated(updatedBook));
+        return Optional.of(updatedBook);
+    }
+
+    private static void normalizeIsbn(Book book) {
+        String isbn13 = Isbns.toIsbn13(book.getIsbn());
+        if (isbn13 == null)
+            throw new BusinessException("Isbn inválido.");
+        book.setIsbn(isbn13);
+    }
+}
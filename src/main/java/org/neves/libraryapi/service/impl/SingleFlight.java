@@ -0,0 +1,48 @@
+package org.neves.libraryapi.service.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas simultâneas para a mesma chave: a primeira executa a consulta e as que chegam enquanto
+ * ela roda recebem o mesmo resultado (ou a mesma exceção), sem consultar de novo. A promessa sai do mapa
+ * assim que a consulta termina, com {@code remove(key, promessa)}, então nada fica retido entre rajadas e
+ * uma chamada posterior sempre faz uma consulta nova.
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    V execute(K key, Supplier<V> query) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null)
+            return await(running);
+
+        try {
+            V result = query.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+}
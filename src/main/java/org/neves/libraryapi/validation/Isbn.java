@@ -0,0 +1,26 @@
+package org.neves.libraryapi.validation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * O valor deve ser um ISBN-10 ou ISBN-13 com dígito verificador correto, com ou sem hífens.
+ * {@code null} é considerado válido.
+ */
+@Documented
+@Constraint(validatedBy = IsbnValidator.class)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Isbn {
+
+    String message() default "Isbn inválido.";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
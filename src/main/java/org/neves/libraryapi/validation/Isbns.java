@@ -0,0 +1,107 @@
+package org.neves.libraryapi.validation;
+
+/**
+ * Validação e normalização de ISBN-10 e ISBN-13, aceitando hífens e espaços entre os dígitos.
+ * Percorre o texto caractere a caractere calculando os dois dígitos verificadores ao mesmo tempo, sem
+ * expressões regulares nem cópias: a validação não aloca e a normalização aloca apenas o resultado.
+ */
+public final class Isbns {
+
+    private static final int ISBN_10_LENGTH = 10;
+    private static final int ISBN_13_LENGTH = 13;
+    private static final int ISBN_10_CHECK_VALUE = 10;
+    private static final int EAN_BOOKLAND_978 = 978;
+    private static final int EAN_BOOKLAND_979 = 979;
+    private static final int NOT_AN_ISBN = 0;
+
+    private Isbns() {
+    }
+
+    public static boolean isValid(CharSequence isbn) {
+        return length(isbn) != NOT_AN_ISBN;
+    }
+
+    /**
+     * Retorna o ISBN-13 canônico (somente dígitos) ou {@code null} se o texto não for um ISBN válido.
+     * Se o texto já estiver na forma canônica, a mesma instância é devolvida.
+     */
+    public static String toIsbn13(String isbn) {
+        int length = length(isbn);
+        if (length == NOT_AN_ISBN)
+            return null;
+        if (length == ISBN_13_LENGTH && isbn.length() == ISBN_13_LENGTH)
+            return isbn;
+
+        char[] canonical = new char[ISBN_13_LENGTH];
+        int position = 0;
+        if (length == ISBN_10_LENGTH) {
+            canonical[position++] = '9';
+            canonical[position++] = '7';
+            canonical[position++] = '8';
+        }
+        for (int i = 0; i < isbn.length() && position < ISBN_13_LENGTH; i++) {
+            char c = isbn.charAt(i);
+            if (c >= '0' && c <= '9')
+                canonical[position++] = c;
+        }
+        if (length == ISBN_10_LENGTH)
+            canonical[ISBN_13_LENGTH - 1] = isbn13CheckDigit(canonical);
+        return new String(canonical);
+    }
+
+    /**
+     * Quantidade de dígitos (10 ou 13) se o texto for um ISBN com dígito verificador correto, ou
+     * {@link #NOT_AN_ISBN}.
+     */
+    private static int length(CharSequence isbn) {
+        if (isbn == null)
+            return NOT_AN_ISBN;
+
+        int digits = 0;
+        int sum10 = 0;
+        int sum13 = 0;
+        int prefix = 0;
+        boolean previousWasSeparator = true;
+        boolean endsWithX = false;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            int value;
+            if (c >= '0' && c <= '9') {
+                value = c - '0';
+            } else if ((c == 'X' || c == 'x') && digits == ISBN_10_LENGTH - 1) {
+                value = ISBN_10_CHECK_VALUE;
+            } else if ((c == '-' || c == ' ') && !previousWasSeparator) {
+                previousWasSeparator = true;
+                continue;
+            } else {
+                return NOT_AN_ISBN;
+            }
+
+            if (digits == ISBN_13_LENGTH || endsWithX)
+                return NOT_AN_ISBN;
+            sum10 += (ISBN_10_LENGTH - digits) * value;
+            sum13 += (digits % 2 == 0 ? 1 : 3) * value;
+            endsWithX = value == ISBN_10_CHECK_VALUE;
+            if (digits < 3)
+                prefix = prefix * 10 + value;
+            digits++;
+            previousWasSeparator = false;
+        }
+        if (previousWasSeparator)
+            return NOT_AN_ISBN;
+
+        if (digits == ISBN_10_LENGTH && sum10 % 11 == 0)
+            return ISBN_10_LENGTH;
+        if (digits == ISBN_13_LENGTH && sum13 % 10 == 0
+                && (prefix == EAN_BOOKLAND_978 || prefix == EAN_BOOKLAND_979))
+            return ISBN_13_LENGTH;
+        return NOT_AN_ISBN;
+    }
+
+    private static char isbn13CheckDigit(char[] isbn13) {
+        int sum = 0;
+        for (int i = 0; i < ISBN_13_LENGTH - 1; i++)
+            sum += (i % 2 == 0 ? 1 : 3) * (isbn13[i] - '0');
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+}
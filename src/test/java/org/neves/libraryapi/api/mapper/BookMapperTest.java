@@ -0,0 +1,39 @@
+package org.neves.libraryapi.api.mapper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.model.entity.Book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookMapperTest {
+
+    private final BookMapper mapper = new BookMapper();
+
+    @Test
+    @DisplayName("Deve converter um DTO em entidade")
+    public void toEntityTest() {
+        BookDTO dto = BookDTO.builder().id(1L).title("Meu livro").author("Autor").isbn("777").build();
+
+        Book book = mapper.toEntity(dto);
+
+        assertThat(book.getId()).isEqualTo(dto.getId());
+        assertThat(book.getTitle()).isEqualTo(dto.getTitle());
+        assertThat(book.getAuthor()).isEqualTo(dto.getAuthor());
+        assertThat(book.getIsbn()).isEqualTo(dto.getIsbn());
+    }
+
+    @Test
+    @DisplayName("Deve converter uma entidade em DTO")
+    public void toDTOTest() {
+        Book book = Book.builder().id(1L).title("Meu livro").author("Autor").isbn("777").build();
+
+        BookDTO dto = mapper.toDTO(book);
+
+        assertThat(dto.getId()).isEqualTo(book.getId());
+        assertThat(dto.getTitle()).isEqualTo(book.getTitle());
+        assertThat(dto.getAuthor()).isEqualTo(book.getAuthor());
+        assertThat(dto.getIsbn()).isEqualTo(book.getIsbn());
+    }
+}
@@ -10,22 +10,41 @@ import org.mockito.Mockito;
 import org.neves.libraryapi.api.dto.BookDTO;
 import org.neves.libraryapi.exception.BusinessException;
 import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookImportResult;
+import org.neves.libraryapi.service.BookSearchService;
 import org.neves.libraryapi.service.BookService;
+import org.neves.libraryapi.service.BookSuggestService;
+import org.neves.libraryapi.service.BookSuggestion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +62,12 @@ public class BookControllerTest {
     @MockBean
     BookService service;
 
+    @MockBean
+    BookSearchService searchService;
+
+    @MockBean
+    BookSuggestService suggestService;
+
     @Test
     @DisplayName("Deve criar um livro com sucesso")
     public void createBookTest() throws Exception {
@@ -50,7 +75,7 @@ public class BookControllerTest {
         BookDTO dto = createNewBookDTO();
         String json = instanceNewBookToJson(dto);
 
-        Book savedBook = Book.builder().title("Meu livro").author("Autor").isbn("777").id(1L).build();
+        Book savedBook = Book.builder().title("Meu livro").author("Autor").isbn("9780306406157").id(1L).build();
         BDDMockito.given(service.save(Mockito.any(Book.class))).willReturn(savedBook);
 
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
@@ -128,6 +153,104 @@ public class BookControllerTest {
                 .andExpect(jsonPath("isbn").value(book.getIsbn()));
     }
 
+    @Test
+    @DisplayName("Deve retornar a versão do livro no ETag")
+    public void getBookETagTest() throws Exception {
+        Long id = 1L;
+        Book book = createValidBookWithId(id);
+        book.setVersion(3L);
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(book));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/" + id))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    @DisplayName("Deve retornar os cabeçalhos de cache ao obter um livro")
+    public void getBookCacheHeadersTest() throws Exception {
+        Long id = 1L;
+        Book book = createValidBookWithId(id);
+        book.setVersion(3L);
+        book.setLastModified(Instant.parse("2021-02-01T10:15:30Z"));
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(book));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/" + id))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Mon, 01 Feb 2021 10:15:30 GMT"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar not modified quando o ETag informado for o atual")
+    public void getBookNotModifiedTest() throws Exception {
+        Long id = 1L;
+        Book book = createValidBookWithId(id);
+        book.setVersion(3L);
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(book));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/" + id))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Deve retornar o livro quando o ETag informado estiver desatualizado")
+    public void getBookModifiedTest() throws Exception {
+        Long id = 1L;
+        Book book = createValidBookWithId(id);
+        book.setVersion(4L);
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(book));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/" + id))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("id").value(id));
+    }
+
+    @Test
+    @DisplayName("Deve obter vários livros de uma vez mantendo a ordem e informando os ausentes")
+    public void getBooksByIdsTest() throws Exception {
+        BDDMockito.given(service.getAllById(Arrays.asList(3L, 1L, 2L)))
+                .willReturn(Arrays.asList(createValidBookWithId(1L), createValidBookWithId(3L)));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?ids=3,1,2"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(2)))
+                .andExpect(jsonPath("content[0].id").value(3L))
+                .andExpect(jsonPath("content[1].id").value(1L))
+                .andExpect(jsonPath("missing", hasSize(1)))
+                .andExpect(jsonPath("missing[0]").value(2L));
+    }
+
     @Test
     @DisplayName("Deve retornar mensagem que não encontrou o livro buscado")
     public void bookNotFoundTest() throws Exception {
@@ -146,7 +269,7 @@ public class BookControllerTest {
     @DisplayName("Deve deletar um livro")
     public void deleteBookTest() throws Exception {
         Long id = 1L;
-        BDDMockito.given(service.getById(id)).willReturn(Optional.of(Book.builder().id(id).build()));
+        BDDMockito.given(service.deleteById(id)).willReturn(true);
 
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
                 .delete(BOOK_API.concat("/" + id));
@@ -159,7 +282,7 @@ public class BookControllerTest {
     @Test
     @DisplayName("Deve retornar resource not found quando não encontrar um livro para deletar")
     public void deleteInexistentBookTest() throws Exception {
-        BDDMockito.given(service.getById(anyLong())).willReturn(Optional.empty());
+        BDDMockito.given(service.deleteById(anyLong())).willReturn(false);
 
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
                 .delete(BOOK_API.concat("/" + 1L));
@@ -169,6 +292,121 @@ public class BookControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Deve lançar erro de validação ao criar livro com isbn inválido")
+    public void createBookWithInvalidIsbnTest() throws Exception {
+        BookDTO dto = BookDTO.builder().title("Meu livro").author("Autor").isbn("978-0-306-40615-8").build();
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(instanceNewBookToJson(dto));
+
+        mvc
+                .perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", hasSize(1)))
+                .andExpect(jsonPath("errors[0]").value("Isbn inválido."));
+        Mockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("Deve buscar livros por texto em ordem de relevância")
+    public void searchBooksTest() throws Exception {
+        BDDMockito.given(searchService.search("meu liv", 20))
+                .willReturn(Arrays.asList(createValidBookWithId(2L), createValidBookWithId(1L)));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/search?q=meu liv"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("[0].id").value(2L))
+                .andExpect(jsonPath("[1].id").value(1L));
+    }
+
+    @Test
+    @DisplayName("Deve sugerir títulos e autores a partir de um prefixo")
+    public void suggestTest() throws Exception {
+        BDDMockito.given(suggestService.suggest("tol", 10)).willReturn(Arrays.asList(
+                new BookSuggestion("Tolkien: uma biografia", BookSuggestion.Type.TITLE),
+                new BookSuggestion("J. R. R. Tolkien", BookSuggestion.Type.AUTHOR)));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/suggest?prefix=tol"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("[0].text").value("Tolkien: uma biografia"))
+                .andExpect(jsonPath("[0].type").value("TITLE"))
+                .andExpect(jsonPath("[1].type").value("AUTHOR"));
+        Mockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("Deve exportar o catálogo em NDJSON")
+    public void exportNdjsonTest() throws Exception {
+        givenExportedBooks(createValidBookWithId(1L), Book.builder().id(2L).title("Outro").author("Autora").isbn("9780131103627").build());
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/export?format=ndjson"));
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(
+                        "{\"id\":1,\"title\":\"Meu livro\",\"author\":\"Jounin\",\"isbn\":\"9780306406157\"}\n" +
+                        "{\"id\":2,\"title\":\"Outro\",\"author\":\"Autora\",\"isbn\":\"9780131103627\"}\n"));
+    }
+
+    @Test
+    @DisplayName("Deve exportar o catálogo em CSV escapando os campos")
+    public void exportCsvTest() throws Exception {
+        givenExportedBooks(Book.builder().id(1L).title("Livro, \"o primeiro\"").author("Chunin").isbn("9780306406157").build());
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/export?format=csv"));
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,title,author,isbn\n1,\"Livro, \"\"o primeiro\"\"\",Chunin,9780306406157\n"));
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro ao exportar em formato desconhecido")
+    public void exportInvalidFormatTest() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/export?format=xml"));
+
+        mvc
+                .perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Formato de exportação inválido: use ndjson ou csv."));
+        Mockito.verify(service, Mockito.never()).exportAll(any());
+    }
+
+    @Test
+    @DisplayName("Deve deletar vários livros de uma vez")
+    public void deleteBooksTest() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .delete(BOOK_API.concat("?ids=1,2,3"));
+
+        mvc
+                .perform(request)
+                .andExpect(status().isNoContent());
+        Mockito.verify(service).deleteAllById(Arrays.asList(1L, 2L, 3L));
+    }
+
     @Test
     @DisplayName("Deve atualizar um livro")
     public void updateBookTest() throws Exception {
@@ -181,11 +419,11 @@ public class BookControllerTest {
                 .given(service.getById(id))
                 .willReturn(Optional.of(updatingBook));
 
-        Book updatedBook = Book.builder().title("Meu livro").author("Chunin").isbn("777").id(id).build();
+        Book updatedBook = Book.builder().title("Meu livro").author("Chunin").isbn("9780306406157").id(id).build();
         updatedBook.setTitle(dto.getTitle());
         updatedBook.setAuthor(dto.getAuthor());
         BDDMockito
-                .given(service.update(updatingBook))
+                .given(service.update(updatingBook.toBuilder().title(dto.getTitle()).author(dto.getAuthor()).build()))
                 .willReturn(updatedBook);
 
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
@@ -223,12 +461,269 @@ public class BookControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Deve importar livros em lote a partir de um array JSON")
+    public void importBooksFromJsonArrayTest() throws Exception {
+        Book created = Book.builder().id(1L).title("Meu livro").author("Autor").isbn("9780306406157").build();
+        Book duplicated = Book.builder().title("Outro livro").author("Autor").isbn("9780306406157").build();
+        List<BookImportResult> imported = Arrays.asList(
+                BookImportResult.created(created),
+                BookImportResult.duplicatedIsbn(duplicated));
+        BDDMockito.given(service.importBooks(anyList())).willReturn(imported);
+
+        String json = "[" + instanceNewBookToJson(createNewBookDTO()) + ","
+                + instanceNewBookToJson(new BookDTO()) + ","
+                + instanceNewBookToJson(createNewBookDTO()) + "]";
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("[0].index").value(0))
+                .andExpect(jsonPath("[0].id").value(1L))
+                .andExpect(jsonPath("[0].status").value("CREATED"))
+                .andExpect(jsonPath("[1].index").value(1))
+                .andExpect(jsonPath("[1].status").value("INVALID"))
+                .andExpect(jsonPath("[1].errors", hasSize(3)))
+                .andExpect(jsonPath("[2].index").value(2))
+                .andExpect(jsonPath("[2].status").value("DUPLICATED_ISBN"));
+    }
+
+    @Test
+    @DisplayName("Deve importar livros em lote a partir de NDJSON")
+    public void importBooksFromNdjsonTest() throws Exception {
+        Book created = Book.builder().id(1L).title("Meu livro").author("Autor").isbn("9780306406157").build();
+        BDDMockito.given(service.importBooks(anyList()))
+                .willReturn(Arrays.asList(BookImportResult.created(created)));
+
+        String ndjson = instanceNewBookToJson(createNewBookDTO()) + "\n";
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(ndjson);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("[0].id").value(1L))
+                .andExpect(jsonPath("[0].isbn").value("9780306406157"))
+                .andExpect(jsonPath("[0].status").value("CREATED"));
+    }
+
+    @Test
+    @DisplayName("Deve devolver os livros já importados e marcar como inválido o registro malformado")
+    public void importBooksWithMalformedRecordTest() throws Exception {
+        Book created = Book.builder().id(1L).title("Meu livro").author("Autor").isbn("9780306406157").build();
+        BDDMockito.given(service.importBooks(anyList()))
+                .willReturn(Arrays.asList(BookImportResult.created(created)));
+
+        String ndjson = instanceNewBookToJson(createNewBookDTO()) + "\n{\"title\": \n"
+                + instanceNewBookToJson(createNewBookDTO()) + "\n";
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(ndjson);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("[0].index").value(0))
+                .andExpect(jsonPath("[0].status").value("CREATED"))
+                .andExpect(jsonPath("[1].index").value(1))
+                .andExpect(jsonPath("[1].status").value("INVALID"));
+        Mockito.verify(service).importBooks(anyList());
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros com paginação")
+    public void findBooksTest() throws Exception {
+        Book book = createValidBookWithId(1L);
+        BDDMockito.given(service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<>(Collections.singletonList(book), PageRequest.of(0, 100), 1));
+
+        String queryString = String.format("?title=%s&author=%s&page=0&size=100", book.getTitle(), book.getAuthor());
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat(queryString))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(1)))
+                .andExpect(jsonPath("content[0].id").value(1L))
+                .andExpect(jsonPath("totalElements").value(1))
+                .andExpect(jsonPath("pageable.pageSize").value(100))
+                .andExpect(jsonPath("pageable.pageNumber").value(0));
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros com paginação por chave")
+    public void findBooksAfterTest() throws Exception {
+        BDDMockito.given(service.findAfter(Mockito.any(Book.class), Mockito.eq(10L), anyInt()))
+                .willReturn(Arrays.asList(createValidBookWithId(11L), createValidBookWithId(12L)));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?author=Jounin&after=10&size=2"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(2)))
+                .andExpect(jsonPath("content[1].id").value(12L))
+                .andExpect(jsonPath("next").value(12L));
+    }
+
+    @Test
+    @DisplayName("Deve indicar o fim da paginação por chave")
+    public void findBooksAfterLastSliceTest() throws Exception {
+        BDDMockito.given(service.findAfter(Mockito.any(Book.class), Mockito.eq(10L), anyInt()))
+                .willReturn(Collections.singletonList(createValidBookWithId(11L)));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?after=10&size=2"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(1)))
+                .andExpect(jsonPath("next").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Deve atualizar um livro com If-Match em um único comando")
+    public void updateBookIfMatchTest() throws Exception {
+        Long id = 1L;
+        BookDTO dto = createNewBookDTO();
+        Book expected = Book.builder().id(id).version(3L).isbn(dto.getIsbn())
+                .title(dto.getTitle()).author(dto.getAuthor()).build();
+        Book updatedBook = expected.toBuilder().version(4L).build();
+        BDDMockito.given(service.updateIfMatch(expected)).willReturn(Optional.of(updatedBook));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/" + id))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content(instanceNewBookToJson(dto))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("id").value(id))
+                .andExpect(jsonPath("title").value(dto.getTitle()))
+                .andExpect(jsonPath("author").value(dto.getAuthor()))
+                .andExpect(jsonPath("isbn").value(dto.getIsbn()));
+        Mockito.verify(service, Mockito.never()).getById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve recusar a atualização quando o If-Match não corresponder à versão atual")
+    public void updateBookIfMatchConflictTest() throws Exception {
+        Long id = 1L;
+        BDDMockito.given(service.updateIfMatch(Mockito.any(Book.class))).willReturn(Optional.empty());
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(createValidBookWithId(id)));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/" + id))
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .content(instanceNewBookToJson(createNewBookDTO()))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("Deve retornar resource not found ao atualizar com If-Match um livro inexistente")
+    public void updateInexistentBookIfMatchTest() throws Exception {
+        BDDMockito.given(service.updateIfMatch(Mockito.any(Book.class))).willReturn(Optional.empty());
+        BDDMockito.given(service.getById(anyLong())).willReturn(Optional.empty());
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/" + 1L))
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .content(instanceNewBookToJson(createNewBookDTO()))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Deve recusar com If-Match a troca do isbn de um livro")
+    public void updateBookIsbnIfMatchTest() throws Exception {
+        Long id = 1L;
+        Book current = createValidBookWithId(id).toBuilder().version(2L).build();
+        BookDTO dto = createNewBookDTO();
+        dto.setIsbn("0-8044-2957-X");
+        BDDMockito.given(service.updateIfMatch(Mockito.any(Book.class))).willReturn(Optional.empty());
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(current));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/" + id))
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .content(instanceNewBookToJson(dto))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Isbn não pode ser alterado."));
+    }
+
+    @Test
+    @DisplayName("Deve retornar conflito quando outra requisição alterar o livro durante a atualização")
+    public void updateBookOptimisticLockTest() throws Exception {
+        Long id = 1L;
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(createValidBookWithId(id)));
+        BDDMockito.given(service.update(Mockito.any(Book.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Book.class, id));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/" + id))
+                .content(instanceNewBookToJson(createNewBookDTO()))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("errors", hasSize(1)));
+    }
+
     private BookDTO createNewBookDTO() {
-        return BookDTO.builder().title("Novo livro").author("Genin").isbn("777").build();
+        return BookDTO.builder().title("Novo livro").author("Genin").isbn("9780306406157").build();
     }
 
     private Book createValidBookWithId(Long id) {
-        return Book.builder().title("Meu livro").author("Jounin").isbn("777").id(id).build();
+        return Book.builder().title("Meu livro").author("Jounin").isbn("9780306406157").id(id).build();
     }
-}
 
+    private void givenExportedBooks(Book... books) {
+        BDDMockito.given(service.exportAll(any())).willAnswer(invocation -> {
+            Consumer<Book> action = invocation.getArgument(0);
+            Arrays.stream(books).forEach(action);
+            return (long) books.length;
+        });
+    }
+}
@@ -0,0 +1,209 @@
+package org.neves.libraryapi.api.resource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles({"test", "reactive"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReactiveBookControllerTest {
+
+    private static final String BOOK_API = "/api/books";
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private BookRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve criar e obter um livro pelo stack reativo, respondendo not modified para o ETag atual")
+    public void createAndGetBookTest() {
+        BookDTO created = createBook("Meu livro", "978-0-306-40615-7");
+
+        assertThat(created.getIsbn()).isEqualTo("9780306406157");
+        String eTag = client.get().uri(BOOK_API + "/" + created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .expectBody()
+                .jsonPath("title").isEqualTo("Meu livro")
+                .returnResult().getResponseHeaders().getETag();
+
+        assertThat(eTag).isEqualTo("\"0\"");
+        client.get().uri(BOOK_API + "/" + created.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+        client.get().uri(BOOK_API + "/-1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Deve manter o formato de erros da API no stack reativo")
+    public void validationAndBusinessErrorsTest() {
+        createBook("Meu livro", "9780306406157");
+
+        client.post().uri(BOOK_API)
+                .bodyValue(BookDTO.builder().title("Sem autor").isbn("123").build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors.length()").isEqualTo(2);
+        client.post().uri(BOOK_API)
+                .bodyValue(BookDTO.builder().title("Outro").author("Autor").isbn("0-306-40615-2").build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("Isbn já cadastrado.");
+    }
+
+    @Test
+    @DisplayName("Deve importar livros em lote a partir de NDJSON pelo stack reativo")
+    public void importBooksTest() {
+        String ndjson = "{\"title\":\"A\",\"author\":\"Autor\",\"isbn\":\"9780306406157\"}\n" +
+                "{\"title\":\"B\",\"author\":\"Autor\"}\n" +
+                "{\"title\":\"C\",\"author\":\"Autor\",\"isbn\":\"0-306-40615-2\"}\n";
+
+        client.post().uri(BOOK_API + "/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(ndjson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("[0].index").isEqualTo(0)
+                .jsonPath("[0].status").isEqualTo("CREATED")
+                .jsonPath("[1].index").isEqualTo(1)
+                .jsonPath("[1].status").isEqualTo("INVALID")
+                .jsonPath("[2].index").isEqualTo(2)
+                .jsonPath("[2].status").isEqualTo("DUPLICATED_ISBN");
+
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros com paginação e exportar os filtrados em NDJSON pelo stack reativo")
+    public void findBooksTest() {
+        createBook("Java", "9780306406157");
+        createBook("Javascript", "9780131103627");
+        createBook("Kotlin", "9788535902778");
+
+        client.get().uri(BOOK_API + "?title=Jav&page=0&size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("content.length()").isEqualTo(1)
+                .jsonPath("content[0].title").isEqualTo("Java")
+                .jsonPath("totalElements").isEqualTo(2);
+
+        Flux<BookDTO> stream = client.get().uri(BOOK_API + "/export?title=Jav")
+                .exchange()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectStatus().isOk()
+                .returnResult(BookDTO.class)
+                .getResponseBody();
+        StepVerifier.create(stream.map(BookDTO::getTitle))
+                .expectNext("Java", "Javascript")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Deve exportar o catálogo em CSV pelo stack reativo")
+    public void exportCsvTest() {
+        BookDTO book = createBook("Livro, volume 1", "9780306406157");
+
+        String csv = client.get().uri(BOOK_API + "/export?format=csv")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith("text/csv")
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertThat(csv).isEqualTo("id,title,author,isbn\n" + book.getId() + ",\"Livro, volume 1\",Autor,9780306406157\n");
+    }
+
+    @Test
+    @DisplayName("Deve exportar catálogos maiores que um bloco de leitura sem repetir nem perder livros")
+    public void exportManyBooksTest() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            books.add(Book.builder().title("Livro " + i).author("Autor").isbn(String.valueOf(i)).build());
+        }
+        repository.saveAll(books);
+
+        Flux<BookDTO> exported = client.get().uri(BOOK_API + "/export")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BookDTO.class)
+                .getResponseBody();
+
+        StepVerifier.create(exported.map(BookDTO::getId).distinct().count())
+                .expectNext(2500L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Deve atualizar com If-Match e deletar um livro pelo stack reativo")
+    public void updateAndDeleteBookTest() {
+        BookDTO book = createBook("Meu livro", "9780306406157");
+        BookDTO changes = BookDTO.builder().title("Novo título").author("Novo autor").isbn("9780306406157").build();
+
+        client.put().uri(BOOK_API + "/" + book.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(changes)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("title").isEqualTo("Novo título")
+                .jsonPath("author").isEqualTo("Novo autor");
+        client.put().uri(BOOK_API + "/" + book.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(changes)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        client.put().uri(BOOK_API + "/" + book.getId())
+                .bodyValue(changes)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"");
+
+        client.delete().uri(BOOK_API + "/" + book.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+        client.delete().uri(BOOK_API + "/" + book.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private BookDTO createBook(String title, String isbn) {
+        return client.post().uri(BOOK_API)
+                .bodyValue(BookDTO.builder().title(title).author("Autor").isbn(isbn).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookDTO.class)
+                .returnResult().getResponseBody();
+    }
+}
@@ -0,0 +1,95 @@
+package org.neves.libraryapi.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.neves.libraryapi.LibraryApiApplication;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.repository.BookRepository;
+import org.neves.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Carga de leituras por id com acesso concentrado em poucos livros, com o cache ligado e desligado.
+ * O modo SampleTime reporta os percentis (p0.99) e o TearDown imprime os comandos SQL por leitura.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookCacheBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class BookCacheBenchmark {
+
+    private static final int BOOKS = 10_000;
+
+    @Param({"caffeine", "none"})
+    public String cacheType;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private Statistics statistics;
+    private final LongAdder reads = new LongAdder();
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN",
+                        "--spring.cache.type=" + cacheType,
+                        "--spring.jpa.properties.hibernate.generate_statistics=true");
+        service = context.getBean(BookService.class);
+
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(Book.builder().title("Livro " + i).author("Autor").isbn(String.valueOf(i)).build());
+        }
+        ids = new ArrayList<>(BOOKS);
+        context.getBean(BookRepository.class).saveAll(books).forEach(book -> ids.add(book.getId()));
+
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        statistics.clear();
+        reads.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printQueryCount() {
+        System.out.printf("%ncache=%s reads=%d statements=%d statements/read=%.4f%n",
+                cacheType, reads.sum(), statistics.getPrepareStatementCount(),
+                (double) statistics.getPrepareStatementCount() / Math.max(1, reads.sum()));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Book> getById() {
+        reads.increment();
+        return service.getById(ids.get(skewedIndex()));
+    }
+
+    private int skewedIndex() {
+        double uniform = ThreadLocalRandom.current().nextDouble();
+        return (int) (Math.pow(uniform, 4) * BOOKS);
+    }
+}
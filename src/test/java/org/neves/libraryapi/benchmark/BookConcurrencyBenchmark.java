@@ -0,0 +1,83 @@
+package org.neves.libraryapi.benchmark;
+
+import org.neves.libraryapi.LibraryApiApplication;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.repository.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara thread-por-requisição, o modo assíncrono ({@code library.web.async.enabled}) e o perfil
+ * {@code reactive} (WebFlux + R2DBC) sob 1000 clientes concorrentes fazendo GET /api/books/{id} com o cache
+ * desligado, para que cada requisição vá ao banco.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookConcurrencyBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(1000)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256k", "-Dhttp.maxConnections=1000"})
+public class BookConcurrencyBenchmark {
+
+    private static final int BOOKS = 1000;
+
+    @Param({"servlet", "async", "reactive"})
+    public String stack;
+
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN",
+                        "--server.port=0",
+                        "--server.tomcat.threads.max=200",
+                        "--spring.cache.type=none",
+                        "--library.web.async.enabled=" + "async".equals(stack),
+                        "--spring.profiles.active=" + ("reactive".equals(stack) ? "reactive" : "default"));
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/books/";
+
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(Book.builder().title("Livro " + i).author("Autor").isbn(IsbnSequence.isbn13(i)).build());
+        }
+        ids = new ArrayList<>(BOOKS);
+        context.getBean(BookRepository.class).saveAll(books).forEach(book -> ids.add(book.getId()));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getById() throws IOException {
+        Long id = ids.get(ThreadLocalRandom.current().nextInt(BOOKS));
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + id).openConnection();
+        int status = connection.getResponseCode();
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[512];
+            while (body != null && body.read(buffer) != -1) {
+                // consome a resposta para reaproveitar a conexão
+            }
+        }
+        return status;
+    }
+}
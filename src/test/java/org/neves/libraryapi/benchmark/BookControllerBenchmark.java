@@ -0,0 +1,148 @@
+package org.neves.libraryapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.neves.libraryapi.LibraryApiApplication;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ida e volta completa pelo MockMvc (roteamento, conversão JSON, validação, serviço e H2) para cada endpoint.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookControllerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class BookControllerBenchmark {
+
+    private static final String BOOK_API = "/api/books";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mvc;
+    private BookService service;
+    private ObjectMapper objectMapper;
+    private Long existingId;
+    private String existingIds;
+    private final IsbnSequence isbnSequence = new IsbnSequence();
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN", "--server.port=0");
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        service = context.getBean(BookService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            Long id = service.save(newBook()).getId();
+            ids.append(i == 0 ? "" : ",").append(id);
+            existingId = id;
+        }
+        existingIds = ids.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult create() throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.post(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(newBookDTO())))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult get() throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.get(BOOK_API + "/" + existingId)
+                .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult find() throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.get(BOOK_API + "?author=Autor&page=0&size=20")
+                .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult findAfter() throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.get(BOOK_API + "?author=Autor&after=0&size=20")
+                .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getAll() throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.get(BOOK_API + "?ids=" + existingIds)
+                .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult update() throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.put(BOOK_API + "/" + existingId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(newBookDTO())))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult delete(DeleteState state) throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.delete(BOOK_API + "/" + state.id))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult importBatch() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            ndjson.append(objectMapper.writeValueAsString(newBookDTO())).append('\n');
+        }
+        return mvc.perform(MockMvcRequestBuilders.post(BOOK_API + "/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(ndjson.toString()))
+                .andReturn();
+    }
+
+    @State(Scope.Thread)
+    public static class DeleteState {
+
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void createBook(BookControllerBenchmark benchmark) {
+            id = benchmark.service.save(benchmark.newBook()).getId();
+        }
+    }
+
+    private Book newBook() {
+        return Book.builder().title("Livro").author("Autor").isbn(isbnSequence.next()).build();
+    }
+
+    private BookDTO newBookDTO() {
+        return BookDTO.builder().title("Livro").author("Autor").isbn(isbnSequence.next()).build();
+    }
+}
@@ -0,0 +1,81 @@
+package org.neves.libraryapi.benchmark;
+
+import org.neves.libraryapi.LibraryApiApplication;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.repository.BookRepository;
+import org.neves.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a vazão (livros/s) do cadastro unitário com a importação em lote.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookImportBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BookImportBenchmark.ROWS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookImportBenchmark {
+
+    static final int ROWS = 1000;
+    private static final int CHUNK_SIZE = 500;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private BookRepository repository;
+    private final IsbnSequence isbnSequence = new IsbnSequence();
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN");
+        service = context.getBean(BookService.class);
+        repository = context.getBean(BookRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void cleanTable() {
+        repository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleInserts() {
+        for (int i = 0; i < ROWS; i++) {
+            service.save(newBook());
+        }
+    }
+
+    @Benchmark
+    public void batchImport() {
+        List<Book> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < ROWS; i++) {
+            chunk.add(newBook());
+            if (chunk.size() == CHUNK_SIZE) {
+                service.importBooks(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty())
+            service.importBooks(chunk);
+    }
+
+    private Book newBook() {
+        return Book.builder().title("Livro").author("Autor").isbn(isbnSequence.next()).build();
+    }
+}
@@ -0,0 +1,48 @@
+package org.neves.libraryapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização e desserialização de BookDTO com o ObjectMapper configurado como no Spring Boot.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookJsonBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookJsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private BookDTO dto;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(BookDTO.class);
+        reader = objectMapper.readerFor(BookDTO.class);
+        dto = BookDTO.builder().id(1L).title("Meu livro").author("Autor").isbn("777").build();
+        json = writer.writeValueAsString(dto);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return writer.writeValueAsString(dto);
+    }
+
+    @Benchmark
+    public BookDTO deserialize() throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+}
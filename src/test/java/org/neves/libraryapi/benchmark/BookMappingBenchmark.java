@@ -0,0 +1,54 @@
+package org.neves.libraryapi.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.api.mapper.BookMapper;
+import org.neves.libraryapi.model.entity.Book;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o ModelMapper com o BookMapper em ns/op e bytes alocados por conversão ({@code -prof gc}).
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookMappingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookMappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final BookMapper bookMapper = new BookMapper();
+
+    private Book book;
+    private BookDTO dto;
+
+    @Setup
+    public void setUp() {
+        book = Book.builder().id(1L).title("Meu livro").author("Autor").isbn("777").build();
+        dto = BookDTO.builder().title("Meu livro").author("Autor").isbn("777").build();
+    }
+
+    @Benchmark
+    public BookDTO modelMapperToDTO() {
+        return modelMapper.map(book, BookDTO.class);
+    }
+
+    @Benchmark
+    public BookDTO bookMapperToDTO() {
+        return bookMapper.toDTO(book);
+    }
+
+    @Benchmark
+    public Book modelMapperToEntity() {
+        return modelMapper.map(dto, Book.class);
+    }
+
+    @Benchmark
+    public Book bookMapperToEntity() {
+        return bookMapper.toEntity(dto);
+    }
+}
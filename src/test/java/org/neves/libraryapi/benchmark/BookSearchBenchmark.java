@@ -0,0 +1,77 @@
+package org.neves.libraryapi.benchmark;
+
+import org.neves.libraryapi.LibraryApiApplication;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookSearchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca textual com 1M de livros: índice Lucene contra {@code LIKE '%termo%'} em título e autor.
+ * O termo "tolkien" aparece em poucos livros (o LIKE precisa varrer a tabela inteira) e "historia" em muitos.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookSearchBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookSearchBenchmark {
+
+    private static final int BOOKS = 1_000_000;
+    private static final int INSERT_CHUNK_SIZE = 100_000;
+    private static final int LIMIT = 20;
+    private static final String LIKE_SQL = "select id, title, author, isbn from book " +
+            "where lower(title) like ? or lower(author) like ? fetch first " + LIMIT + " rows only";
+
+    @Param({"tolkien", "historia"})
+    public String term;
+
+    private ConfigurableApplicationContext context;
+    private BookSearchService searchService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN", "--spring.cache.type=none");
+        searchService = context.getBean(BookSearchService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        for (int from = 1; from <= BOOKS; from += INSERT_CHUNK_SIZE) {
+            jdbcTemplate.update("insert into book (id, title, author, isbn, version) " +
+                            "select x, " +
+                            "case when mod(x, 50000) = 0 then 'O Senhor dos Anéis ' || x else 'Historia do livro ' || x end, " +
+                            "case when mod(x, 50000) = 0 then 'J. R. R. Tolkien' else 'Autor ' || mod(x, 1000) end, " +
+                            "'isbn-' || x, 0 from system_range(?, ?)",
+                    from, Math.min(from + INSERT_CHUNK_SIZE - 1, BOOKS));
+        }
+        searchService.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> lucene() {
+        return searchService.search(term, LIMIT);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> sqlLike() {
+        String pattern = "%" + term + "%";
+        return jdbcTemplate.queryForList(LIKE_SQL, pattern, pattern);
+    }
+}
@@ -0,0 +1,62 @@
+package org.neves.libraryapi.benchmark;
+
+import org.neves.libraryapi.LibraryApiApplication;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookServiceImpl.save e getById contra o H2 em memória, com o cache de livros ligado e desligado.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookServiceBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Param({"caffeine", "none"})
+    public String cacheType;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private Long existingId;
+    private final IsbnSequence isbnSequence = new IsbnSequence();
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN", "--spring.cache.type=" + cacheType);
+        service = context.getBean(BookService.class);
+        existingId = service.save(newBook()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book save() {
+        return service.save(newBook());
+    }
+
+    @Benchmark
+    public Optional<Book> getById() {
+        return service.getById(existingId);
+    }
+
+    private Book newBook() {
+        return Book.builder().title("Livro").author("Autor").isbn(isbnSequence.next()).build();
+    }
+}
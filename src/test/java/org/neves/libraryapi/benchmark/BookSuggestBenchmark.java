@@ -0,0 +1,46 @@
+package org.neves.libraryapi.benchmark;
+
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.BookChangedEvent;
+import org.neves.libraryapi.service.BookSuggestion;
+import org.neves.libraryapi.service.impl.PrefixBookSuggestService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sugestões por prefixo com 1M de livros em memória, do prefixo curto (muitas correspondências) ao longo.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookSuggestBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookSuggestBenchmark {
+
+    private static final int BOOKS = 1_000_000;
+    private static final String[] WORDS = {"senhor", "historia", "aneis", "tempo", "memorias", "cidade", "noite", "mar"};
+
+    @Param({"h", "hist", "historia do mar 12"})
+    public String prefix;
+
+    private PrefixBookSuggestService suggestService;
+
+    @Setup(Level.Trial)
+    public void buildSuggestions() {
+        suggestService = new PrefixBookSuggestService(null);
+        for (long id = 1; id <= BOOKS; id++) {
+            String title = WORDS[(int) (id % WORDS.length)] + " do " + WORDS[(int) (id / WORDS.length % WORDS.length)] + " " + id;
+            Book book = Book.builder().id(id).title(title).author("Autor " + id % 10_000).build();
+            suggestService.onBookChanged(BookChangedEvent.created(book));
+        }
+    }
+
+    @Benchmark
+    public List<BookSuggestion> suggest() {
+        return suggestService.suggest(prefix, 10);
+    }
+}
@@ -0,0 +1,52 @@
+package org.neves.libraryapi.benchmark;
+
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da Bean Validation aplicada por {@code @Valid BookDTO}, com DTO válido e inválido.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=BookValidationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private BookDTO validDto;
+    private BookDTO invalidDto;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validDto = BookDTO.builder().title("Meu livro").author("Autor").isbn("978-0-306-40615-7").build();
+        invalidDto = new BookDTO();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookDTO>> validBook() {
+        return validator.validate(validDto);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookDTO>> invalidBook() {
+        return validator.validate(invalidDto);
+    }
+}
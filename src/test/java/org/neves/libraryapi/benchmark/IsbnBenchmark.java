@@ -0,0 +1,75 @@
+package org.neves.libraryapi.benchmark;
+
+import org.neves.libraryapi.validation.Isbns;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Validação e normalização de isbn: parser caractere a caractere de {@link Isbns} contra uma implementação
+ * com expressões regulares. Rode com {@code -prof gc} para comparar as alocações.
+ * Execução: {@code mvn -Pbenchmark verify -DskipTests -Djmh.includes=IsbnBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IsbnBenchmark {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[- ]");
+    private static final Pattern ISBN_FORMAT = Pattern.compile("^(?:\\d{9}[\\dXx]|97[89]\\d{10})$");
+    private static final Pattern HYPHENATED = Pattern.compile("^[\\dXx]+(?:[- ][\\dXx]+)*$");
+
+    @Param({"9780306406157", "978-0-306-40615-7", "0-306-40615-2", "978-0-306-40615-8"})
+    public String isbn;
+
+    @Benchmark
+    public boolean charParserValidate() {
+        return Isbns.isValid(isbn);
+    }
+
+    @Benchmark
+    public boolean regexValidate() {
+        return regexToIsbn13(isbn) != null;
+    }
+
+    @Benchmark
+    public String charParserNormalize() {
+        return Isbns.toIsbn13(isbn);
+    }
+
+    @Benchmark
+    public String regexNormalize() {
+        return regexToIsbn13(isbn);
+    }
+
+    private static String regexToIsbn13(String value) {
+        if (!HYPHENATED.matcher(value).matches())
+            return null;
+        String digits = SEPARATORS.matcher(value).replaceAll("");
+        if (!ISBN_FORMAT.matcher(digits).matches())
+            return null;
+        if (digits.length() == 10) {
+            int sum = 0;
+            for (int i = 0; i < 10; i++) {
+                char c = digits.charAt(i);
+                sum += (10 - i) * (c == 'X' || c == 'x' ? 10 : Character.digit(c, 10));
+            }
+            if (sum % 11 != 0)
+                return null;
+            String isbn12 = "978" + digits.substring(0, 9);
+            return isbn12 + checkDigit13(isbn12);
+        }
+        return checkDigit13(digits.substring(0, 12)) == digits.charAt(12) ? digits : null;
+    }
+
+    private static char checkDigit13(String isbn12) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++)
+            sum += (i % 2 == 0 ? 1 : 3) * Character.digit(isbn12.charAt(i), 10);
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+}
@@ -0,0 +1,24 @@
+package org.neves.libraryapi.benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gera ISBN-13 válidos e distintos ({@code 978} + sequência de 9 dígitos + dígito verificador) para os
+ * benchmarks que passam pela validação e normalização de isbn.
+ */
+class IsbnSequence {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    String next() {
+        return isbn13(sequence.incrementAndGet());
+    }
+
+    static String isbn13(long number) {
+        String digits = String.format("978%09d", number);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++)
+            sum += (i % 2 == 0 ? 1 : 3) * (digits.charAt(i) - '0');
+        return digits + (10 - sum % 10) % 10;
+    }
+}
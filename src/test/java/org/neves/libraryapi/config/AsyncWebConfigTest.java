@@ -0,0 +1,52 @@
+package org.neves.libraryapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@AutoConfigureMetrics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"library.web.async.enabled=true", "library.web.async.pool-size=4"})
+public class AsyncWebConfigTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Deve atender as requisições no executor dedicado quando o modo assíncrono estiver ativo")
+    public void asyncModeTest() {
+        BookDTO dto = BookDTO.builder().title("Meu livro").author("Autor").isbn("9780306406157").build();
+
+        ResponseEntity<BookDTO> created = restTemplate.postForEntity("/api/books", dto, BookDTO.class);
+        ResponseEntity<BookDTO> found = restTemplate.getForEntity("/api/books/" + created.getBody().getId(), BookDTO.class);
+        ResponseEntity<String> notFound = restTemplate.getForEntity("/api/books/-1", String.class);
+
+        assertThat(handlerAdapter).isInstanceOf(OffloadingHandlerAdapter.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(found.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(found.getBody().getIsbn()).isEqualTo("9780306406157");
+        assertThat(notFound.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(meterRegistry.get("http.server.requests").tag("uri", "/api/books/{id}").tag("status", "200")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("library.hibernate.statements").tag("uri", "/api/books").tag("method", "POST")
+                .summary().totalAmount()).isPositive();
+    }
+}
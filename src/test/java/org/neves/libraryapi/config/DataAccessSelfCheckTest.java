@@ -0,0 +1,40 @@
+package org.neves.libraryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles({"test", "prod"})
+@SpringBootTest(properties = "library.startup-check.iterations=10")
+public class DataAccessSelfCheckTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("Deve subir o perfil prod com o pool do tamanho das threads de requisição e a verificação ativa")
+    public void prodProfileTest() {
+        assertThat(context.getBeansOfType(DataAccessSelfCheck.class)).hasSize(1);
+        assertThat(dataSource).isInstanceOf(HikariDataSource.class);
+        assertThat(((HikariDataSource) dataSource).getMaximumPoolSize()).isEqualTo(50);
+        assertThat(DataAccessSelfCheck.checkPoolSize(50, 50)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve avisar quando o pool de conexões não corresponde às threads de requisição")
+    public void checkPoolSizeTest() {
+        assertThat(DataAccessSelfCheck.checkPoolSize(10, 200)).contains("menor");
+        assertThat(DataAccessSelfCheck.checkPoolSize(50, 20)).contains("ociosas");
+    }
+}
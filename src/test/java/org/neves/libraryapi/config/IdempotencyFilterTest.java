@@ -0,0 +1,132 @@
+package org.neves.libraryapi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.neves.libraryapi.model.repository.BookRepository;
+import org.neves.libraryapi.model.repository.IdempotentResponseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "library.idempotency.persistent=true")
+public class IdempotencyFilterTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookRepository repository;
+
+    @Autowired
+    private IdempotentResponseRepository responseRepository;
+
+    @BeforeEach
+    public void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve repetir a primeira resposta, sem criar o livro de novo, para a mesma Idempotency-Key")
+    public void replayTest() {
+        String key = UUID.randomUUID().toString();
+        BookDTO dto = BookDTO.builder().title("Meu livro").author("Autor").isbn("9780306406157").build();
+
+        ResponseEntity<BookDTO> first = create(key, dto);
+        ResponseEntity<BookDTO> retry = create(key, dto);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(first.getHeaders().containsKey(IdempotencyFilter.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getBody().getId()).isEqualTo(first.getBody().getId());
+        assertThat(repository.count()).isEqualTo(1);
+        assertThat(responseRepository.findById(IdempotencyFilter.storageKey("addr:127.0.0.1", key))).isPresent();
+    }
+
+    @Test
+    @DisplayName("Deve recusar com 422 a mesma Idempotency-Key em uma requisição diferente")
+    public void keyReusedWithAnotherBodyTest() {
+        String key = UUID.randomUUID().toString();
+        create(key, BookDTO.builder().title("Meu livro").author("Autor").isbn("9780306406157").build());
+
+        ResponseEntity<String> reused = restTemplate.postForEntity("/api/books",
+                request(key, BookDTO.builder().title("Outro livro").author("Autor").isbn("9780306406164").build()),
+                String.class);
+
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(reused.getBody()).contains("Idempotency-Key já usada em outra requisição.");
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve tratar uma chave de API não configurada como o endereço de origem")
+    public void unknownApiKeyTest() {
+        String key = UUID.randomUUID().toString();
+        BookDTO dto = BookDTO.builder().title("Meu livro").author("Autor").isbn("9780306406157").build();
+        create(key, dto);
+
+        HttpEntity<BookDTO> request = request(key, dto);
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+        headers.set("X-Api-Key", UUID.randomUUID().toString());
+        ResponseEntity<BookDTO> retry = restTemplate.postForEntity("/api/books", new HttpEntity<>(dto, headers),
+                BookDTO.class);
+
+        assertThat(retry.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve executar uma única vez as requisições simultâneas com a mesma Idempotency-Key")
+    public void concurrentDuplicatesTest() throws Exception {
+        String key = UUID.randomUUID().toString();
+        BookDTO dto = BookDTO.builder().title("Meu livro").author("Autor").isbn("9780306406157").build();
+        int clients = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<BookDTO>>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < clients; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return create(key, dto);
+                }));
+            }
+            start.countDown();
+            for (Future<ResponseEntity<BookDTO>> response : responses) {
+                ResponseEntity<BookDTO> entity = response.get(30, TimeUnit.SECONDS);
+                assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+                assertThat(entity.getBody().getId()).isEqualTo(responses.get(0).get().getBody().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    private ResponseEntity<BookDTO> create(String key, BookDTO dto) {
+        return restTemplate.postForEntity("/api/books", request(key, dto), BookDTO.class);
+    }
+
+    private static HttpEntity<BookDTO> request(String key, BookDTO dto) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        return new HttpEntity<>(dto, headers);
+    }
+}
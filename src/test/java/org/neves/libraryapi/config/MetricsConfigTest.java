@@ -0,0 +1,59 @@
+package org.neves.libraryapi.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neves.libraryapi.api.dto.BookDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@AutoConfigureMetrics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class MetricsConfigTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    @DisplayName("Deve expor no formato Prometheus as métricas de endpoints, serviço, erros, comandos SQL e pool")
+    public void prometheusScrapeTest() {
+        BookDTO dto = BookDTO.builder().title("Meu livro").author("Autor").isbn("9788535902778").build();
+        restTemplate.postForEntity("/api/books", dto, BookDTO.class);
+        restTemplate.postForEntity("/api/books", dto, String.class);
+        restTemplate.getForEntity("/api/books/-1", String.class);
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .contains("http_server_requests_seconds_bucket")
+                .contains("library_book_service_seconds_bucket")
+                .contains("method=\"save\"")
+                .contains("library_books_errors_total{application=\"library-api\",type=\"business\",} 1.0")
+                .contains("library_books_errors_total{application=\"library-api\",type=\"not_found\",} 1.0")
+                .contains("library_hibernate_statements")
+                .contains("uri=\"/api/books/{id}\"")
+                .contains("hikaricp_connections_pending")
+                .contains("library_isbn_filter_false_positive_probability");
+    }
+
+    @Test
+    @DisplayName("Deve expor o estado do filtro de isbns e permitir reconstruí-lo")
+    public void isbnFilterEndpointTest() {
+        ResponseEntity<Map> rebuilt = restTemplate.postForEntity("/actuator/isbnfilter", Collections.emptyMap(), Map.class);
+        ResponseEntity<Map> stats = restTemplate.getForEntity("/actuator/isbnfilter", Map.class);
+
+        assertThat(rebuilt.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(stats.getBody()).containsEntry("ready", true).containsKeys("bitSize", "expectedFalsePositiveProbability");
+    }
+}
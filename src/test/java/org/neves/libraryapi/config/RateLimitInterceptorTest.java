@@ -0,0 +1,100 @@
+package org.neves.libraryapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitInterceptorTest {
+
+    private MeterRegistry registry;
+    private AtomicInteger poolWaiters;
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        poolWaiters = new AtomicInteger();
+        interceptor = new RateLimitInterceptor(registry, "X-Api-Key",
+                new HashSet<>(Arrays.asList("cliente-a", "cliente-b", "cliente-c")),
+                new RateLimitInterceptor.Limits(1, 3),
+                new RateLimitInterceptor.Limits(0.5, 2),
+                2, 1, poolWaiters::get);
+    }
+
+    @Test
+    @DisplayName("Deve recusar com 429 e Retry-After o cliente que esgotar a rajada, sem afetar os demais")
+    public void throttlePerClientTest() throws Exception {
+        for (int i = 0; i < 2; i++)
+            assertThat(handle("POST", "cliente-a").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse throttled = handle("POST", "cliente-a");
+
+        assertThat(throttled.getStatus()).isEqualTo(429);
+        assertThat(throttled.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(handle("POST", "cliente-b").getStatus()).isEqualTo(200);
+        assertThat(handle("GET", "cliente-a").getStatus()).isEqualTo(200);
+        assertThat(registry.get("library.ratelimit.requests").tags("kind", "write", "outcome", "throttled")
+                .counter().count()).isEqualTo(1);
+        assertThat(registry.get("library.ratelimit.requests").tags("kind", "write", "outcome", "admitted")
+                .counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve limitar pelo endereço de origem as requisições com chaves de API desconhecidas")
+    public void unknownApiKeyTest() throws Exception {
+        for (int i = 0; i < 2; i++)
+            assertThat(handle("POST", "chave-" + i).getStatus()).isEqualTo(200);
+
+        assertThat(handle("POST", "outra-chave").getStatus()).isEqualTo(429);
+        assertThat(handle("POST", "cliente-a").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Deve descartar com 503 as escritas quando houver espera por conexão e tudo acima do máximo em andamento")
+    public void shedLoadTest() throws Exception {
+        poolWaiters.set(1);
+        MockHttpServletResponse shedWrite = handle("POST", "cliente-a");
+        MockHttpServletResponse read = handle("GET", "cliente-a");
+        poolWaiters.set(0);
+
+        assertThat(shedWrite.getStatus()).isEqualTo(503);
+        assertThat(shedWrite.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(read.getStatus()).isEqualTo(200);
+
+        MockHttpServletRequest first = request("GET", "cliente-a");
+        MockHttpServletRequest second = request("GET", "cliente-b");
+        assertThat(interceptor.preHandle(first, new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(second, new MockHttpServletResponse(), null)).isTrue();
+        assertThat(handle("GET", "cliente-c").getStatus()).isEqualTo(503);
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertThat(handle("GET", "cliente-c").getStatus()).isEqualTo(200);
+        assertThat(registry.get("library.ratelimit.requests").tags("kind", "read", "outcome", "shed")
+                .counter().count()).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse handle(String method, String apiKey) throws Exception {
+        MockHttpServletRequest request = request(method, apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (interceptor.preHandle(request, response, null))
+            interceptor.afterCompletion(request, response, null, null);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/books");
+        request.addHeader("X-Api-Key", apiKey);
+        return request;
+    }
+}
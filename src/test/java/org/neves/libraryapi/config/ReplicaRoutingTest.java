@@ -0,0 +1,116 @@
+package org.neves.libraryapi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.repository.BookRepository;
+import org.neves.libraryapi.service.BookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Primário e réplica são dois bancos H2 distintos; a réplica não recebe as escritas, então o conteúdo lido
+ * mostra de qual banco veio a leitura.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary-test;DB_CLOSE_DELAY=-1",
+        "library.datasource.replica.urls=" + ReplicaRoutingTest.REPLICA_URL + ";IFEXISTS=TRUE",
+        "library.datasource.replica.health-check-interval-ms=600000"})
+public class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-test;DB_CLOSE_DELAY=-1";
+
+    static {
+        createReplica();
+    }
+
+    @Autowired
+    private BookService service;
+
+    @Autowired
+    private BookRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        routingDataSource = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        createReplica();
+        routingDataSource.checkReplicas();
+        cacheManager.getCache("books").clear();
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve ler da réplica e gravar no primário")
+    public void readFromReplicaTest() throws SQLException {
+        Book book = repository.save(Book.builder().title("No primário").author("Autor").isbn("9780306406157").build());
+        executeOnReplica("insert into book (id, title, author, isbn, version) values (" + book.getId() +
+                ", 'Na réplica', 'Autor', '9780306406157', 0)");
+
+        Optional<Book> found = service.getById(book.getId());
+
+        assertThat(routingDataSource.getHealthyReplicas()).hasSize(1);
+        assertThat(found).map(Book::getTitle).contains("Na réplica");
+        assertThat(repository.findById(book.getId())).map(Book::getTitle).contains("Na réplica");
+    }
+
+    @Test
+    @DisplayName("Deve ler do primário o livro recém-criado, antes de ele chegar à réplica")
+    public void readYourWritesTest() {
+        Book book = service.save(Book.builder().title("Novo").author("Autor").isbn("9780306406157").build());
+
+        Optional<Book> found = service.getById(book.getId());
+
+        assertThat(found).map(Book::getTitle).contains("Novo");
+    }
+
+    @Test
+    @DisplayName("Deve ler do primário quando a réplica ficar indisponível")
+    public void fallbackToPrimaryTest() throws SQLException {
+        Book book = repository.save(Book.builder().title("No primário").author("Autor").isbn("9780306406157").build());
+        executeOnReplica("shutdown");
+
+        routingDataSource.checkReplicas();
+        Optional<Book> found = service.getById(book.getId());
+
+        assertThat(routingDataSource.getHealthyReplicas()).isEmpty();
+        assertThat(found).map(Book::getTitle).contains("No primário");
+    }
+
+    private static void createReplica() {
+        try {
+            executeOnReplica("create table if not exists book (id bigint primary key, title varchar(255), " +
+                    "author varchar(255), isbn varchar(255), version bigint, last_modified timestamp)");
+            executeOnReplica("delete from book");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void executeOnReplica(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
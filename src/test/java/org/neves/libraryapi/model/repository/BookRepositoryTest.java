@@ -7,10 +7,17 @@ import org.neves.libraryapi.model.entity.Book;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.as;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -59,6 +66,136 @@ public class BookRepositoryTest {
         assertThat(foundBook.isPresent()).isTrue();
     }
 
+    @Test
+    @DisplayName("Deve retornar apenas os isbns já cadastrados de uma lista")
+    public void findExistingIsbnsTest(){
+        entityManager.persist(createValidBookWithIsbn("777"));
+        entityManager.persist(createValidBookWithIsbn("888"));
+
+        Set<String> existing = repository.findExistingIsbns(Arrays.asList("777", "888", "999"));
+
+        assertThat(existing).containsExactlyInAnyOrder("777", "888");
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros por prefixo de título e autor")
+    public void findByFilterTest(){
+        entityManager.persist(Book.builder().title("Dom Casmurro").author("Machado de Assis").isbn("111").build());
+        entityManager.persist(Book.builder().title("Dom Quixote").author("Cervantes").isbn("222").build());
+        entityManager.persist(Book.builder().title("O Cortiço").author("Aluísio Azevedo").isbn("333").build());
+
+        Book filter = Book.builder().title("Dom").author("Mach").build();
+        Page<Book> result = repository.findAll(BookSpecifications.matching(filter), PageRequest.of(0, 10));
+
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent().get(0).getIsbn()).isEqualTo("111");
+    }
+
+    @Test
+    @DisplayName("Deve tratar curingas do LIKE como texto literal no filtro")
+    public void findByFilterEscapingWildcardsTest(){
+        entityManager.persist(Book.builder().title("100% Java").author("Autor").isbn("111").build());
+        entityManager.persist(Book.builder().title("100 Receitas").author("Autor").isbn("222").build());
+
+        Book filter = Book.builder().title("100%").build();
+        Page<Book> result = repository.findAll(BookSpecifications.matching(filter), PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting(Book::getIsbn).containsExactly("111");
+    }
+
+    @Test
+    @DisplayName("Deve filtrar pelo isbn informado como ISBN-10 ou com hífens")
+    public void findByIsbnFilterTest(){
+        entityManager.persist(Book.builder().title("Meu livro").author("Autor").isbn("9780306406157").build());
+
+        Page<Book> byIsbn10 = repository.findAll(
+                BookSpecifications.matching(Book.builder().isbn("0-306-40615-2").build()), PageRequest.of(0, 10));
+        Page<Book> byIsbn13 = repository.findAll(
+                BookSpecifications.matching(Book.builder().isbn("978-0-306-40615-7").build()), PageRequest.of(0, 10));
+
+        assertThat(byIsbn10.getContent()).extracting(Book::getIsbn).containsExactly("9780306406157");
+        assertThat(byIsbn13.getContent()).extracting(Book::getIsbn).containsExactly("9780306406157");
+    }
+
+    @Test
+    @DisplayName("Deve paginar livros por chave em ordem de id")
+    public void findAllAfterTest(){
+        Book first = entityManager.persist(createValidBookWithIsbn("111"));
+        Book second = entityManager.persist(createValidBookWithIsbn("222"));
+        Book third = entityManager.persist(createValidBookWithIsbn("333"));
+
+        Book filter = Book.builder().author("Autor").build();
+        List<Book> firstSlice = repository.findAllAfter(BookSpecifications.matching(filter), 0L, 2);
+        List<Book> secondSlice = repository.findAllAfter(BookSpecifications.matching(filter), second.getId(), 2);
+
+        assertThat(firstSlice).containsExactly(first, second);
+        assertThat(secondSlice).containsExactly(third);
+    }
+
+    @Test
+    @DisplayName("Deve percorrer todos os livros em ordem de id desanexando cada um")
+    public void forEachBookTest(){
+        Book first = entityManager.persist(createValidBookWithIsbn("111"));
+        Book second = entityManager.persist(createValidBookWithIsbn("222"));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Book> visited = new ArrayList<>();
+        long count = repository.forEachBook(1, visited::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(visited).extracting(Book::getId).containsExactly(first.getId(), second.getId());
+        assertThat(visited).noneMatch(book -> entityManager.getEntityManager().contains(book));
+    }
+
+    @Test
+    @DisplayName("Deve registrar a data de alteração ao salvar um livro")
+    public void lastModifiedTest(){
+        Book book = entityManager.persistFlushFind(createValidBookWithIsbn("777"));
+
+        assertThat(book.getLastModified()).isNotNull();
+        assertThat(book.getVersion()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Deve atualizar título e autor apenas quando a versão corresponder")
+    public void updateTitleAndAuthorTest(){
+        Book book = entityManager.persistFlushFind(createValidBookWithIsbn("777"));
+        Long version = book.getVersion();
+
+        Instant lastModified = book.getLastModified().plusSeconds(60);
+        int staleUpdate = repository.updateTitleAndAuthor(book.getId(), version + 1, "777", "Outro", "Outro", lastModified);
+        int otherIsbnUpdate = repository.updateTitleAndAuthor(book.getId(), version, "778", "Outro", "Outro", lastModified);
+        int update = repository.updateTitleAndAuthor(book.getId(), version, "777", "Novo título", "Novo autor", lastModified);
+        entityManager.clear();
+
+        Book updatedBook = entityManager.find(Book.class, book.getId());
+        assertThat(staleUpdate).isZero();
+        assertThat(otherIsbnUpdate).isZero();
+        assertThat(update).isEqualTo(1);
+        assertThat(updatedBook.getTitle()).isEqualTo("Novo título");
+        assertThat(updatedBook.getAuthor()).isEqualTo("Novo autor");
+        assertThat(updatedBook.getVersion()).isEqualTo(version + 1);
+        assertThat(updatedBook.getLastModified()).isEqualTo(lastModified);
+    }
+
+    @Test
+    @DisplayName("Deve deletar livros pelo id em um único comando")
+    public void deleteBooksByIdTest(){
+        Book first = entityManager.persist(createValidBookWithIsbn("111"));
+        Book second = entityManager.persist(createValidBookWithIsbn("222"));
+        Book third = entityManager.persist(createValidBookWithIsbn("333"));
+        entityManager.flush();
+
+        int deletedOne = repository.deleteBookById(first.getId());
+        int deletedMany = repository.deleteBooksByIdIn(Arrays.asList(second.getId(), third.getId(), -1L));
+        int deletedNone = repository.deleteBookById(first.getId());
+
+        assertThat(deletedOne).isEqualTo(1);
+        assertThat(deletedMany).isEqualTo(2);
+        assertThat(deletedNone).isZero();
+    }
+
     private Book createValidBookWithIsbn(String isbn) {
         return Book.builder().title("Meu livro").author("Autor").isbn(isbn).build();
     }
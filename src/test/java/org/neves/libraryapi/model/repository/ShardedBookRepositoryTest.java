@@ -0,0 +1,193 @@
+package org.neves.libraryapi.model.repository;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neves.libraryapi.model.entity.Book;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cada shard é um banco H2 em memória próprio, recriado a cada teste.
+ */
+public class ShardedBookRepositoryTest {
+
+    private static int databases;
+
+    private final List<ShardedBookRepository> repositories = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (ShardedBookRepository repository : repositories)
+            repository.close();
+    }
+
+    @Test
+    @DisplayName("Deve gravar cada livro no shard do seu isbn e encontrá-lo pelo id")
+    public void insertAndFindByIdTest() {
+        List<DataSource> shards = createShards(3);
+        ShardedBookRepository repository = createRepository(shards);
+
+        List<Book> books = createBooks(60);
+        repository.insertAll(books);
+        Book single = repository.insert(createBook(isbn13(1000)));
+
+        assertThat(repository.countPerShard()).allMatch(count -> count > 0);
+        assertThat(repository.countPerShard().stream().mapToLong(Long::longValue).sum()).isEqualTo(61);
+        for (Book book : books) {
+            assertThat(repository.shardOf(book.getId())).isEqualTo(repository.shardOf(book.getIsbn()));
+            assertThat(repository.findById(book.getId())).map(Book::getIsbn).contains(book.getIsbn());
+        }
+        assertThat(repository.findById(single.getId())).map(Book::getVersion).contains(0L);
+        assertThat(repository.findAllById(books.stream().map(Book::getId).collect(Collectors.toList())))
+                .hasSize(books.size());
+    }
+
+    @Test
+    @DisplayName("Deve verificar o isbn apenas no shard dono e recusar isbn repetido")
+    public void existsByIsbnTest() {
+        ShardedBookRepository repository = createRepository(createShards(3));
+        Book book = repository.insert(createBook(isbn13(1)));
+
+        List<Long> counts = repository.countPerShard();
+        assertThat(counts.get(repository.shardOf(book.getIsbn()))).isEqualTo(1);
+        assertThat(counts.stream().mapToLong(Long::longValue).sum()).isEqualTo(1);
+        assertThat(repository.existsByIsbn(book.getIsbn())).isTrue();
+        assertThat(repository.existsByIsbn(isbn13(2))).isFalse();
+        assertThat(repository.findExistingIsbns(Arrays.asList(book.getIsbn(), isbn13(2))))
+                .containsExactly(book.getIsbn());
+        assertThatThrownBy(() -> repository.insert(createBook(isbn13(1)))).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    @DisplayName("Deve paginar e ordenar combinando os resultados de todos os shards")
+    public void scatterGatherPaginationTest() {
+        ShardedBookRepository repository = createRepository(createShards(3));
+        List<Book> books = createBooks(25);
+        for (int i = 0; i < books.size(); i++)
+            books.get(i).setTitle(String.format("Livro %02d", 24 - i));
+        repository.insertAll(books);
+
+        Page<Book> page = repository.findAll(Book.builder().title("Livro").build(),
+                PageRequest.of(1, 10, Sort.by("title")));
+        List<Long> ids = books.stream().map(Book::getId).sorted().collect(Collectors.toList());
+        List<Book> afterFirst = repository.findAllAfter(null, ids.get(0), 5);
+
+        assertThat(page.getTotalElements()).isEqualTo(25);
+        assertThat(page.getContent()).extracting(Book::getTitle)
+                .containsExactlyElementsOf(IntStream.range(10, 20).mapToObj(i -> String.format("Livro %02d", i))
+                        .collect(Collectors.toList()));
+        assertThat(afterFirst).extracting(Book::getId)
+                .containsExactlyElementsOf(ids.subList(1, 6));
+        assertThat(repository.forEachBook(7, book -> { })).isEqualTo(25);
+    }
+
+    @Test
+    @DisplayName("Deve mover os livros para o novo shard dono ao acrescentar um shard")
+    public void rebalanceTest() {
+        List<DataSource> shards = createShards(3);
+        ShardedBookRepository twoShards = createRepository(shards.subList(0, 2));
+        List<Book> books = createBooks(90);
+        twoShards.insertAll(books);
+
+        ShardedBookRepository threeShards = createRepository(shards);
+        long misplaced = books.stream()
+                .filter(book -> threeShards.shardOf(book.getId()) != twoShards.shardOf(book.getId()))
+                .count();
+        long moved = threeShards.rebalance();
+
+        assertThat(moved).isEqualTo(misplaced).isPositive();
+        assertThat(threeShards.countPerShard()).allMatch(count -> count > 0);
+        assertThat(threeShards.countPerShard().stream().mapToLong(Long::longValue).sum()).isEqualTo(90);
+        for (Book book : books)
+            assertThat(threeShards.findById(book.getId())).isPresent();
+        assertThat(threeShards.rebalance()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve preservar as escritas feitas durante o rebalanceamento e recusar isbn ainda no shard antigo")
+    public void writesDuringRebalanceTest() {
+        List<DataSource> shards = createShards(3);
+        ShardedBookRepository twoShards = createRepository(shards.subList(0, 2));
+        List<Book> books = createBooks(3000);
+        twoShards.insertAll(books);
+        ShardedBookRepository threeShards = createRepository(shards);
+        List<Book> misplaced = books.stream()
+                .filter(book -> threeShards.shardOf(book.getId()) != twoShards.shardOf(book.getId()))
+                .sorted(Comparator.comparing(Book::getId).reversed())
+                .collect(Collectors.toList());
+        Book updated = misplaced.get(0);
+        Book deleted = misplaced.get(1);
+        Book duplicated = misplaced.get(2);
+
+        CompletableFuture<Long> rebalance = CompletableFuture.supplyAsync(threeShards::rebalance);
+        while (!threeShards.isRebalancing() && !rebalance.isDone())
+            Thread.yield();
+        long version = 0;
+        do {
+            assertThat(threeShards.updateTitleAndAuthor(updated.getId(), version, updated.getIsbn(),
+                    "Título " + (version + 1), "Autor", Instant.now())).isEqualTo(1);
+            version++;
+        } while (!rebalance.isDone());
+        assertThat(threeShards.deleteById(deleted.getId())).isEqualTo(1);
+        assertThatThrownBy(() -> threeShards.insert(createBook(duplicated.getIsbn())))
+                .isInstanceOf(DuplicateKeyException.class);
+        rebalance.join();
+
+        Book afterRebalance = threeShards.findById(updated.getId()).orElseThrow(AssertionError::new);
+        assertThat(afterRebalance.getVersion()).isEqualTo(version);
+        assertThat(afterRebalance.getTitle()).isEqualTo("Título " + version);
+        assertThat(threeShards.findById(deleted.getId())).isEmpty();
+        assertThat(threeShards.countPerShard().stream().mapToLong(Long::longValue).sum()).isEqualTo(2999);
+        assertThat(threeShards.rebalance()).isZero();
+    }
+
+    private ShardedBookRepository createRepository(List<DataSource> shards) {
+        ShardedBookRepository repository = new ShardedBookRepository(shards, new BookShardIds(repositories.size()));
+        repositories.add(repository);
+        return repository;
+    }
+
+    private static List<DataSource> createShards(int count) {
+        List<DataSource> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            JdbcDataSource shard = new JdbcDataSource();
+            shard.setURL("jdbc:h2:mem:sharded-test-" + databases++ + ";DB_CLOSE_DELAY=-1");
+            shard.setUser("sa");
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    private static List<Book> createBooks(int count) {
+        return IntStream.range(0, count).mapToObj(i -> createBook(isbn13(i))).collect(Collectors.toList());
+    }
+
+    private static Book createBook(String isbn) {
+        return Book.builder().title("Livro").author("Autor").isbn(isbn).build();
+    }
+
+    private static String isbn13(long number) {
+        String digits = String.format("978%09d", number);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++)
+            sum += (i % 2 == 0 ? 1 : 3) * (digits.charAt(i) - '0');
+        return digits + (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,153 @@
+package org.neves.libraryapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+import org.neves.libraryapi.model.repository.BookOutboxLeaseRepository;
+import org.neves.libraryapi.model.repository.BookOutboxRepository;
+import org.neves.libraryapi.model.repository.BookRepository;
+import org.neves.libraryapi.service.impl.BookOutboxRelay;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {"library.outbox.relay.enabled=false", "library.outbox.batch-size=2"})
+@ActiveProfiles("test")
+public class BookOutboxRelayTest {
+
+    @Autowired
+    private BookService service;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookOutboxRepository outboxRepository;
+
+    @Autowired
+    private BookOutboxLeaseRepository leaseRepository;
+
+    @Autowired
+    private BookOutboxRelay relay;
+
+    @Autowired
+    private InMemoryBookEventSink sink;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        bookRepository.deleteAll();
+        outboxRepository.deleteAll();
+        sink.clear();
+    }
+
+    @Test
+    @DisplayName("Deve publicar as alterações de um livro em lotes e na ordem em que aconteceram")
+    public void relayInOrderTest() {
+        Book book = service.save(createValidBook());
+        book.setTitle("Novo título");
+        book = service.update(book);
+        service.delete(book);
+
+        int published = relay.relayPending();
+
+        assertThat(published).isEqualTo(3);
+        assertThat(sink.getEvents())
+                .extracting(BookOutboxEvent::getType, BookOutboxEvent::getBookId)
+                .containsExactly(
+                        tuple(BookChangedEvent.Type.CREATED, book.getId()),
+                        tuple(BookChangedEvent.Type.UPDATED, book.getId()),
+                        tuple(BookChangedEvent.Type.DELETED, book.getId()));
+        assertThat(sink.getEvents().get(1).getTitle()).isEqualTo("Novo título");
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(relay.getPendingEvents()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve manter os eventos no outbox e reenviá-los quando o destino falhar")
+    public void relayRetriesAfterFailureTest() {
+        Book book = service.save(createValidBook());
+        sink.failNext(1);
+
+        int published = relay.relayPending();
+
+        assertThat(published).isZero();
+        assertThat(relay.getFailedBatches()).isPositive();
+        assertThat(relay.getPendingEvents()).isEqualTo(1);
+
+        published = relay.relayPending();
+
+        assertThat(published).isEqualTo(1);
+        List<Long> bookIds = sink.getEvents().stream().map(BookOutboxEvent::getBookId).collect(Collectors.toList());
+        assertThat(bookIds).containsExactly(book.getId());
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve reservar um bloco de ids por transação, crescente entre as transações")
+    public void idBlockPerTransactionTest() {
+        Book book = service.save(createValidBook());
+        book.setTitle("Novo título");
+        service.update(book);
+
+        List<Long> ids = outboxRepository.findAll().stream().map(BookOutboxEvent::getId).sorted().collect(Collectors.toList());
+
+        assertThat(ids).hasSize(2);
+        assertThat(ids.get(1) - ids.get(0)).isEqualTo(BookOutboxEvent.ID_BLOCK_SIZE);
+    }
+
+    @Test
+    @DisplayName("Deve publicar o outbox por uma instância de cada vez")
+    public void relayLeaseTest() {
+        service.save(createValidBook());
+        BookOutboxRelay otherInstance = new BookOutboxRelay(outboxRepository, leaseRepository, sink, 2, 500, false, 30000);
+
+        relay.relayPending();
+        service.save(createValidBook().toBuilder().isbn("9780131101630").build());
+
+        assertThat(otherInstance.relayPending()).isZero();
+        assertThat(relay.relayPending()).isEqualTo(1);
+        assertThat(sink.getEvents()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Deve descartar o evento do outbox junto com a transação da alteração")
+    public void outboxRollsBackWithWriteTest() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            service.save(createValidBook());
+            status.setRollbackOnly();
+        });
+
+        assertThat(bookRepository.count()).isZero();
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    private Book createValidBook() {
+        return Book.builder().title("Meu livro").author("Autor").isbn("9780306406157").build();
+    }
+
+    @TestConfiguration
+    static class InMemorySinkConfig {
+
+        @Bean
+        @Primary
+        public InMemoryBookEventSink inMemoryBookEventSink() {
+            return new InMemoryBookEventSink();
+        }
+    }
+}
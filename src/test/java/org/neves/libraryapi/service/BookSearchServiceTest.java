@@ -0,0 +1,99 @@
+package org.neves.libraryapi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.impl.LuceneBookSearchService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+public class BookSearchServiceTest {
+
+    private LuceneBookSearchService searchService;
+
+    @MockBean
+    private BookService bookService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.searchService = new LuceneBookSearchService(bookService, 60000);
+        Map<Long, Book> books = Arrays.asList(
+                Book.builder().id(1L).title("O Senhor dos Anéis").author("J. R. R. Tolkien").isbn("1").build(),
+                Book.builder().id(2L).title("O Hobbit").author("J. R. R. Tolkien").isbn("2").build(),
+                Book.builder().id(3L).title("Memórias Póstumas de Brás Cubas").author("Machado de Assis").isbn("3").build(),
+                Book.builder().id(4L).title("Tolkien: uma biografia").author("Humphrey Carpenter").isbn("4").build())
+                .stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+        books.values().forEach(book -> searchService.onBookChanged(BookChangedEvent.created(book)));
+        searchService.refresh();
+        Mockito.when(bookService.getAllById(Mockito.anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(books::get).collect(Collectors.toList());
+        });
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        searchService.destroy();
+    }
+
+    @Test
+    @DisplayName("Deve buscar livros por prefixo de título ignorando acentos")
+    public void prefixSearchTest() {
+        List<Book> result = searchService.search("memo postu", 10);
+
+        assertThat(result).extracting(Book::getId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Deve buscar livros com erro de digitação")
+    public void fuzzySearchTest() {
+        List<Book> result = searchService.search("machdo", 10);
+
+        assertThat(result).extracting(Book::getId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Deve ordenar por relevância priorizando o título")
+    public void rankingTest() {
+        List<Book> result = searchService.search("tolkien", 10);
+
+        assertThat(result).extracting(Book::getId).hasSize(3).startsWith(4L);
+    }
+
+    @Test
+    @DisplayName("Deve manter o índice sincronizado com alterações e remoções")
+    public void syncIndexTest() {
+        searchService.onBookChanged(BookChangedEvent.updated(
+                Book.builder().id(2L).title("O Silmarillion").author("J. R. R. Tolkien").build()));
+        searchService.onBookChanged(BookChangedEvent.deleted(1L));
+        searchService.refresh();
+
+        assertThat(searchService.search("hobbit", 10)).isEmpty();
+        assertThat(searchService.search("silmarillion", 10)).extracting(Book::getId).containsExactly(2L);
+        assertThat(searchService.search("senhor aneis", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve retornar vazio quando a busca não tiver termos")
+    public void emptyQueryTest() {
+        assertThat(searchService.search("  ", 10)).isEmpty();
+        Mockito.verify(bookService, Mockito.never()).getAllById(Mockito.anyCollection());
+    }
+}
@@ -0,0 +1,158 @@
+package org.neves.libraryapi.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neves.libraryapi.exception.BusinessException;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.model.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class BookServiceIntegrationTest {
+
+    @Autowired
+    private BookService service;
+
+    @Autowired
+    private BookRepository repository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCache("books").clear();
+        repository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Deve obter o livro do cache a partir da segunda consulta")
+    public void getByIdFromCacheTest() {
+        Book book = repository.save(createValidBook());
+        statistics.clear();
+
+        service.getById(book.getId());
+        Optional<Book> cachedBook = service.getById(book.getId());
+
+        assertThat(cachedBook).contains(book);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(booksCacheStats().hitCount()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Não deve guardar no cache a consulta de um livro inexistente")
+    public void getByIdNotFoundIsNotCachedTest() {
+        statistics.clear();
+
+        service.getById(-1L);
+        service.getById(-1L);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve remover o livro do cache ao deletar")
+    public void deleteEvictsCacheTest() {
+        Book book = repository.save(createValidBook());
+        service.getById(book.getId());
+
+        service.delete(book);
+
+        assertThat(service.getById(book.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve remover o livro do cache ao atualizar")
+    public void updateEvictsCacheTest() {
+        Book book = repository.save(createValidBook());
+        service.getById(book.getId());
+
+        service.update(book.toBuilder().title("Novo título").build());
+        statistics.clear();
+        service.getById(book.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve recusar a atualização de um livro com versão desatualizada")
+    public void updateWithStaleVersionTest() {
+        Book book = repository.save(createValidBook());
+        Book updatedBook = service.update(book.toBuilder().title("Primeira edição").build());
+
+        Throwable exception = catchThrowable(() -> service.update(book.toBuilder().title("Edição concorrente").build()));
+
+        assertThat(updatedBook.getVersion()).isEqualTo(book.getVersion() + 1);
+        assertThat(exception).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(repository.findById(book.getId()).get().getTitle()).isEqualTo("Primeira edição");
+    }
+
+    @Test
+    @DisplayName("Deve cadastrar apenas um livro quando várias requisições concorrentes usarem o mesmo isbn")
+    public void concurrentSaveWithDuplicatedIsbnTest() throws Exception {
+        int requests = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        service.save(createValidBook());
+                        created.incrementAndGet();
+                    } catch (BusinessException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(requests - 1);
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    private CacheStats booksCacheStats() {
+        return ((CaffeineCache) cacheManager.getCache("books")).getNativeCache().stats();
+    }
+
+    private Book createValidBook() {
+        return Book.builder().title("Meu livro").author("Autor").isbn("9780306406157").build();
+    }
+}
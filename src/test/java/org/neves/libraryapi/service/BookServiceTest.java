@@ -5,16 +5,33 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.Mockito;
 import org.neves.libraryapi.exception.BusinessException;
 import org.neves.libraryapi.model.entity.Book;
 import org.neves.libraryapi.model.repository.BookRepository;
 import org.neves.libraryapi.service.impl.BookServiceImpl;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -23,22 +40,25 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class BookServiceTest {
 
     private BookService service;
+    private ApplicationEventPublisher eventPublisher;
+    private IsbnFilter isbnFilter;
 
     @MockBean
     private BookRepository repository;
 
     @BeforeEach
     public void setUp() {
-        this.service = new BookServiceImpl(repository);
+        this.eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        this.isbnFilter = Mockito.mock(IsbnFilter.class);
+        this.service = new BookServiceImpl(repository, eventPublisher, isbnFilter,
+                Mockito.mock(PlatformTransactionManager.class));
     }
 
     @Test
     @DisplayName("Deve salvar um livro")
     public void saveBookTest() {
         Book book = createValidBook(1L);
-        Mockito.when(repository.existsByIsbn(Mockito.anyString()))
-                .thenReturn(false);
-        Mockito.when(repository.save(book))
+        Mockito.when(repository.saveAndFlush(book))
                 .thenReturn(Book.builder()
                         .id(1L)
                         .isbn(book.getIsbn())
@@ -51,21 +71,122 @@ public class BookServiceTest {
         assertThat(savedBook.getIsbn()).isEqualTo(book.getIsbn());
         assertThat(savedBook.getAuthor()).isEqualTo(book.getAuthor());
         assertThat(savedBook.getTitle()).isEqualTo(book.getTitle());
+        Mockito.verify(eventPublisher).publishEvent(BookChangedEvent.created(savedBook));
+    }
+
+    @Test
+    @DisplayName("Deve salvar o isbn normalizado para ISBN-13")
+    public void saveBookWithNormalizedIsbnTest() {
+        Book book = Book.builder().title("Meu livro").author("Autor").isbn("0-306-40615-2").build();
+        Mockito.when(repository.saveAndFlush(book)).thenReturn(book);
+
+        Book savedBook = service.save(book);
+
+        assertThat(savedBook.getIsbn()).isEqualTo("9780306406157");
     }
 
     @Test
     @DisplayName("Deve lançar erro de negócio ao tentar salvar livro com isbn duplicado")
     public void shouldNotSaveBookWithDuplicateIsbnTest() {
         Book book = createValidBook(1L);
-        Mockito.when(repository.existsByIsbn(book.getIsbn()))
-                .thenReturn(true);
+        ConstraintViolationException violation = new ConstraintViolationException(
+                "Unique index or primary key violation", new SQLException(), "PUBLIC.UK_BOOK_ISBN_INDEX_2");
+        Mockito.when(repository.saveAndFlush(book))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", violation));
 
         Throwable exception = Assertions.catchThrowable(() -> service.save(book));
 
         assertThat(exception)
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Isbn já cadastrado.");
-        Mockito.verify(repository, Mockito.never()).save(book);
+        Mockito.verify(repository, Mockito.never()).existsByIsbn(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Deve consultar no banco apenas os isbns que o filtro indicar como possivelmente cadastrados")
+    public void importBooksWithIsbnFilterTest() {
+        Book newBook = Book.builder().title("Novo").author("Autor").isbn("9780131103627").build();
+        Book existingBook = Book.builder().title("Existente").author("Autor").isbn("9780306406157").build();
+        Mockito.when(isbnFilter.mightContain("9780306406157")).thenReturn(true);
+        Mockito.when(repository.findExistingIsbns(Collections.singleton("9780306406157")))
+                .thenReturn(Collections.singleton("9780306406157"));
+
+        List<BookImportResult> results = service.importBooks(Arrays.asList(newBook, existingBook));
+
+        assertThat(results).extracting(BookImportResult::getStatus).containsExactly(
+                BookImportResult.Status.CREATED,
+                BookImportResult.Status.DUPLICATED_ISBN);
+        Mockito.verify(repository).findExistingIsbns(Collections.singleton("9780306406157"));
+        Mockito.verify(isbnFilter).recordFalsePositives(0);
+    }
+
+    @Test
+    @DisplayName("Não deve consultar o banco quando o filtro garantir que nenhum isbn está cadastrado")
+    public void importNewBooksWithoutQueryTest() {
+        Book newBook = Book.builder().title("Novo").author("Autor").isbn("9780131103627").build();
+
+        List<BookImportResult> results = service.importBooks(Collections.singletonList(newBook));
+
+        assertThat(results).extracting(BookImportResult::getStatus).containsExactly(BookImportResult.Status.CREATED);
+        Mockito.verify(repository, Mockito.never()).findExistingIsbns(Mockito.anyCollection());
+        Mockito.verify(repository).saveAll(Collections.singletonList(newBook));
+    }
+
+    @Test
+    @DisplayName("Deve propagar violações de integridade que não sejam de isbn duplicado")
+    public void shouldPropagateOtherIntegrityViolationsTest() {
+        Book book = createValidBook(1L);
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("not null");
+        Mockito.when(repository.saveAndFlush(book)).thenThrow(violation);
+
+        Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+
+        assertThat(exception).isSameAs(violation);
+    }
+
+    @Test
+    @DisplayName("Deve importar em lote apenas os livros com isbn inédito")
+    public void importBooksTest() {
+        Book newBook = Book.builder().title("Novo").author("Autor").isbn("9780131103627").build();
+        Book existingBook = Book.builder().title("Existente").author("Autor").isbn("9780306406157").build();
+        Book repeatedBook = Book.builder().title("Repetido").author("Autor").isbn("9780131103627").build();
+        Mockito.when(isbnFilter.mightContain(Mockito.anyString())).thenReturn(true);
+        Mockito.when(repository.findExistingIsbns(Mockito.anyCollection()))
+                .thenReturn(Collections.singleton("9780306406157"));
+
+        List<BookImportResult> results = service.importBooks(Arrays.asList(newBook, existingBook, repeatedBook));
+
+        assertThat(results).extracting(BookImportResult::getStatus).containsExactly(
+                BookImportResult.Status.CREATED,
+                BookImportResult.Status.DUPLICATED_ISBN,
+                BookImportResult.Status.DUPLICATED_ISBN);
+        Mockito.verify(repository, Mockito.times(1)).findExistingIsbns(Mockito.anyCollection());
+        Mockito.verify(repository).saveAll(Collections.singletonList(newBook));
+        Mockito.verify(repository, Mockito.never()).existsByIsbn(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Deve marcar como isbn duplicado o livro gravado por outra transação durante a importação")
+    public void importBooksConcurrentIsbnTest() {
+        Book newBook = Book.builder().title("Novo").author("Autor").isbn("9780131103627").build();
+        Book concurrentBook = Book.builder().title("Concorrente").author("Autor").isbn("9780306406157").build();
+        ConstraintViolationException violation = new ConstraintViolationException(
+                "Unique index or primary key violation", new SQLException(), "PUBLIC.UK_BOOK_ISBN_INDEX_2");
+        Mockito.doThrow(new DataIntegrityViolationException("could not execute statement", violation))
+                .doNothing()
+                .when(repository).flush();
+        Mockito.when(repository.findExistingIsbns(Mockito.anyCollection()))
+                .thenReturn(Collections.singleton("9780306406157"));
+
+        List<BookImportResult> results = service.importBooks(Arrays.asList(newBook, concurrentBook));
+
+        assertThat(results).extracting(BookImportResult::getStatus).containsExactly(
+                BookImportResult.Status.CREATED,
+                BookImportResult.Status.DUPLICATED_ISBN);
+        assertThat(results).extracting(result -> result.getBook().getIsbn())
+                .containsExactly("9780131103627", "9780306406157");
+        Mockito.verify(repository, Mockito.times(2)).flush();
+        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(Mockito.any(BookChangedEvent.class));
     }
 
     @Test
@@ -98,6 +219,96 @@ public class BookServiceTest {
         assertThat(optionalBook.isPresent()).isFalse();
     }
 
+    @Test
+    @DisplayName("Deve consultar o banco uma única vez para buscas simultâneas do mesmo livro")
+    public void getByIdSingleFlightTest() throws Exception {
+        Book book = createValidBook(1L);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        Mockito.when(repository.findById(1L)).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(10, TimeUnit.SECONDS);
+            return Optional.of(book);
+        });
+        int clients = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Optional<Book>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> service.getById(1L)));
+            queryStarted.await(10, TimeUnit.SECONDS);
+            AtomicReferenceArray<Thread> followers = new AtomicReferenceArray<>(clients - 1);
+            for (int i = 0; i < clients - 1; i++) {
+                int follower = i;
+                results.add(executor.submit(() -> {
+                    followers.set(follower, Thread.currentThread());
+                    return service.getById(1L);
+                }));
+            }
+            // Só libera a consulta quando todas as outras buscas estiverem esperando por ela.
+            for (int i = 0; i < clients - 1; i++) {
+                while (followers.get(i) == null || followers.get(i).getState() != Thread.State.WAITING)
+                    Thread.sleep(5);
+            }
+            releaseQuery.countDown();
+
+            for (Future<Optional<Book>> result : results)
+                assertThat(result.get(10, TimeUnit.SECONDS)).containsSame(book);
+            Mockito.verify(repository, Mockito.times(1)).findById(1L);
+
+            service.getById(1L);
+            Mockito.verify(repository, Mockito.times(2)).findById(1L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve obter vários livros em consultas por lotes")
+    public void getAllByIdTest() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 501; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        Mockito.when(repository.findAllById(Mockito.anyIterable()))
+                .thenReturn(Collections.singletonList(createValidBook(1L)), Collections.singletonList(createValidBook(501L)));
+
+        List<Book> books = service.getAllById(ids);
+
+        assertThat(books).extracting(Book::getId).containsExactly(1L, 501L);
+        Mockito.verify(repository, Mockito.times(2)).findAllById(Mockito.anyIterable());
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros pelas propriedades")
+    @SuppressWarnings("unchecked")
+    public void findBookTest() {
+        Book book = createValidBook(1L);
+        Pageable pageRequest = PageRequest.of(0, 10);
+        Page<Book> page = new PageImpl<>(Collections.singletonList(book), pageRequest, 1);
+        Mockito.when(repository.findAll(Mockito.any(Specification.class), Mockito.any(Pageable.class)))
+                .thenReturn(page);
+
+        Page<Book> result = service.find(book, pageRequest);
+
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent()).containsExactly(book);
+        assertThat(result.getPageable()).isEqualTo(pageRequest);
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros por chave a partir de um id")
+    @SuppressWarnings("unchecked")
+    public void findBookAfterTest() {
+        Book book = createValidBook(2L);
+        Mockito.when(repository.findAllAfter(Mockito.any(Specification.class), Mockito.eq(1L), Mockito.eq(10)))
+                .thenReturn(Collections.singletonList(book));
+
+        List<Book> result = service.findAfter(Book.builder().build(), 1L, 10);
+
+        assertThat(result).containsExactly(book);
+    }
+
     @Test
     @DisplayName("Deve deletar um livro com sucesso")
     public void deleteBookTest(){
@@ -108,8 +319,101 @@ public class BookServiceTest {
         Mockito.verify(repository, Mockito.only()).delete(book);
     }
 
+    @Test
+    @DisplayName("Deve deletar um livro pelo id sem consultá-lo antes")
+    public void deleteBookByIdTest() {
+        Mockito.when(repository.deleteBookById(1L)).thenReturn(1);
+
+        assertThat(service.deleteById(1L)).isTrue();
+        Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(eventPublisher).publishEvent(BookChangedEvent.deleted(1L));
+    }
+
+    @Test
+    @DisplayName("Deve indicar quando não houver livro para deletar pelo id")
+    public void deleteInexistentBookByIdTest() {
+        Mockito.when(repository.deleteBookById(1L)).thenReturn(0);
+
+        assertThat(service.deleteById(1L)).isFalse();
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Deve deletar vários livros em lotes e publicar apenas os que existiam")
+    public void deleteAllByIdTest() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1500; id++) {
+            ids.add(id);
+        }
+        Mockito.when(repository.findExistingIds(Mockito.anyCollection()))
+                .thenReturn(ids.subList(0, 1000), ids.subList(1000, 1499));
+        Mockito.when(repository.deleteBooksByIdIn(Mockito.anyCollection())).thenReturn(1000, 499);
+
+        int deleted = service.deleteAllById(ids);
+
+        assertThat(deleted).isEqualTo(1499);
+        Mockito.verify(repository, Mockito.times(2)).deleteBooksByIdIn(Mockito.anyCollection());
+        Mockito.verify(eventPublisher, Mockito.times(1499)).publishEvent(Mockito.any(BookChangedEvent.class));
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(BookChangedEvent.deleted(1500L));
+    }
+
+    @Test
+    @DisplayName("Deve atualizar um livro")
+    public void updateBookTest() {
+        Book updatingBook = createValidBook(1L);
+        Book updatedBook = createValidBook(1L);
+        updatedBook.setVersion(1L);
+        Mockito.when(repository.save(updatingBook)).thenReturn(updatedBook);
+
+        Book book = service.update(updatingBook);
+
+        assertThat(book).isEqualTo(updatedBook);
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro ao tentar atualizar um livro sem id")
+    public void updateInvalidBookTest() {
+        Book book = Book.builder().build();
+
+        Throwable exception = Assertions.catchThrowable(() -> service.update(book));
+
+        assertThat(exception).isInstanceOf(IllegalArgumentException.class);
+        Mockito.verify(repository, Mockito.never()).save(book);
+    }
+
+    @Test
+    @DisplayName("Deve atualizar título e autor condicionado à versão")
+    public void updateIfMatchTest() {
+        Book book = createValidBook(1L);
+        book.setVersion(2L);
+        book.setIsbn("978-0-306-40615-7");
+        Mockito.when(repository.updateTitleAndAuthor(Mockito.eq(1L), Mockito.eq(2L), Mockito.eq("9780306406157"),
+                Mockito.eq(book.getTitle()), Mockito.eq(book.getAuthor()), Mockito.any(Instant.class))).thenReturn(1);
+
+        Optional<Book> updatedBook = service.updateIfMatch(book);
+
+        assertThat(updatedBook).isPresent();
+        assertThat(updatedBook.get().getVersion()).isEqualTo(3L);
+        assertThat(updatedBook.get().getIsbn()).isEqualTo("9780306406157");
+        assertThat(updatedBook.get().getTitle()).isEqualTo(book.getTitle());
+        assertThat(updatedBook.get().getLastModified()).isNotNull();
+        Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(eventPublisher).publishEvent(BookChangedEvent.updated(updatedBook.get()));
+    }
+
+    @Test
+    @DisplayName("Deve indicar falha na atualização condicional com versão desatualizada")
+    public void updateIfMatchStaleVersionTest() {
+        Book book = createValidBook(1L);
+        book.setVersion(1L);
+        Mockito.when(repository.updateTitleAndAuthor(Mockito.eq(1L), Mockito.eq(1L), Mockito.eq(book.getIsbn()),
+                Mockito.eq(book.getTitle()), Mockito.eq(book.getAuthor()), Mockito.any(Instant.class))).thenReturn(0);
+
+        assertThat(service.updateIfMatch(book)).isEmpty();
+    }
+
     private Book createValidBook(Long id) {
-        return Book.builder().id(id).title("Meu livro").author("Autor").isbn("777").build();
+        return Book.builder().id(id).title("Meu livro").author("Autor").isbn("9780306406157").build();
     }
 
 }
@@ -0,0 +1,117 @@
+package org.neves.libraryapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.impl.PrefixBookSuggestService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+public class BookSuggestServiceTest {
+
+    private PrefixBookSuggestService suggestService;
+
+    @MockBean
+    private BookService bookService;
+
+    @BeforeEach
+    public void setUp() {
+        this.suggestService = new PrefixBookSuggestService(bookService);
+        suggestService.onBookChanged(BookChangedEvent.created(createBook(1L, "O Senhor dos Anéis", "J. R. R. Tolkien")));
+        suggestService.onBookChanged(BookChangedEvent.created(createBook(2L, "O Hobbit", "J. R. R. Tolkien")));
+        suggestService.onBookChanged(BookChangedEvent.created(createBook(3L, "Tolkien: uma biografia", "Humphrey Carpenter")));
+    }
+
+    @Test
+    @DisplayName("Deve sugerir títulos e autores com palavras começando pelo prefixo ignorando acentos")
+    public void suggestTest() {
+        List<BookSuggestion> suggestions = suggestService.suggest("TOL", 10);
+
+        assertThat(suggestions).containsExactly(
+                new BookSuggestion("J. R. R. Tolkien", BookSuggestion.Type.AUTHOR),
+                new BookSuggestion("Tolkien: uma biografia", BookSuggestion.Type.TITLE));
+        assertThat(suggestService.suggest("anei", 10))
+                .containsExactly(new BookSuggestion("O Senhor dos Anéis", BookSuggestion.Type.TITLE));
+        Mockito.verifyNoInteractions(bookService);
+    }
+
+    @Test
+    @DisplayName("Deve ordenar as sugestões pela quantidade de livros, não pela ordem alfabética")
+    public void rankingTest() {
+        suggestService.onBookChanged(BookChangedEvent.created(createBook(4L, "Cartas", "Walter Carpenter")));
+        suggestService.onBookChanged(BookChangedEvent.created(createBook(5L, "Diários", "Walter Carpenter")));
+
+        assertThat(suggestService.suggest("carp", 10)).containsExactly(
+                new BookSuggestion("Walter Carpenter", BookSuggestion.Type.AUTHOR),
+                new BookSuggestion("Humphrey Carpenter", BookSuggestion.Type.AUTHOR));
+        assertThat(suggestService.suggest("carp", 1))
+                .containsExactly(new BookSuggestion("Walter Carpenter", BookSuggestion.Type.AUTHOR));
+    }
+
+    @Test
+    @DisplayName("Deve promover a próxima sugestão quando uma das mais frequentes perder livros")
+    public void rankingAfterRemovalTest() {
+        for (long id = 10; id < 22; id++)
+            suggestService.onBookChanged(BookChangedEvent.created(createBook(id, "Zeta " + id, "Autor")));
+        suggestService.onBookChanged(BookChangedEvent.created(createBook(30L, "Zeta 21", "Autor")));
+
+        assertThat(suggestService.suggest("zet", 10)).hasSize(10)
+                .startsWith(new BookSuggestion("Zeta 21", BookSuggestion.Type.TITLE))
+                .doesNotContain(new BookSuggestion("Zeta 19", BookSuggestion.Type.TITLE));
+
+        suggestService.onBookChanged(BookChangedEvent.deleted(10L));
+
+        assertThat(suggestService.suggest("zet", 10)).hasSize(10)
+                .contains(new BookSuggestion("Zeta 19", BookSuggestion.Type.TITLE))
+                .doesNotContain(new BookSuggestion("Zeta 10", BookSuggestion.Type.TITLE));
+    }
+
+    @Test
+    @DisplayName("Deve aceitar prefixos com mais de uma palavra")
+    public void multiWordPrefixTest() {
+        assertThat(suggestService.suggest("senhor dos a", 10))
+                .containsExactly(new BookSuggestion("O Senhor dos Anéis", BookSuggestion.Type.TITLE));
+        assertThat(suggestService.suggest("dos ane", 10))
+                .containsExactly(new BookSuggestion("O Senhor dos Anéis", BookSuggestion.Type.TITLE));
+        assertThat(suggestService.suggest("senhor ane", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve limitar a quantidade de sugestões")
+    public void limitTest() {
+        assertThat(suggestService.suggest("o", 1)).hasSize(1);
+        assertThat(suggestService.suggest("", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve atualizar as sugestões quando livros forem alterados ou removidos")
+    public void syncTest() {
+        suggestService.onBookChanged(BookChangedEvent.deleted(3L));
+        suggestService.onBookChanged(BookChangedEvent.updated(createBook(2L, "O Silmarillion", "J. R. R. Tolkien")));
+
+        assertThat(suggestService.suggest("tol", 10))
+                .containsExactly(new BookSuggestion("J. R. R. Tolkien", BookSuggestion.Type.AUTHOR));
+        assertThat(suggestService.suggest("hob", 10)).isEmpty();
+        assertThat(suggestService.suggest("sil", 10))
+                .containsExactly(new BookSuggestion("O Silmarillion", BookSuggestion.Type.TITLE));
+
+        suggestService.onBookChanged(BookChangedEvent.deleted(1L));
+        suggestService.onBookChanged(BookChangedEvent.deleted(2L));
+
+        assertThat(suggestService.suggest("tol", 10)).isEmpty();
+    }
+
+    private static Book createBook(Long id, String title, String author) {
+        return Book.builder().id(id).title(title).author(author).isbn(String.valueOf(id)).build();
+    }
+}
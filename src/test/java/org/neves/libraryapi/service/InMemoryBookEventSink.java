@@ -0,0 +1,38 @@
+package org.neves.libraryapi.service;
+
+import org.neves.libraryapi.model.entity.BookOutboxEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Destino em memória para os testes do outbox; pode ser configurado para falhar nas próximas publicações.
+ */
+public class InMemoryBookEventSink implements BookEventSink {
+
+    private final List<BookOutboxEvent> events = new ArrayList<>();
+    private int failuresLeft;
+
+    @Override
+    public synchronized void publish(List<BookOutboxEvent> batch) throws IOException {
+        if (failuresLeft > 0) {
+            failuresLeft--;
+            throw new IOException("Destino indisponível.");
+        }
+        events.addAll(batch);
+    }
+
+    public synchronized List<BookOutboxEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public synchronized void failNext(int times) {
+        failuresLeft = times;
+    }
+
+    public synchronized void clear() {
+        events.clear();
+        failuresLeft = 0;
+    }
+}
@@ -0,0 +1,86 @@
+package org.neves.libraryapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.neves.libraryapi.model.entity.Book;
+import org.neves.libraryapi.service.impl.BloomIsbnFilter;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+public class IsbnFilterTest {
+
+    private static final int BOOKS = 10_000;
+
+    private BloomIsbnFilter isbnFilter;
+
+    @MockBean
+    private BookService bookService;
+
+    @BeforeEach
+    public void setUp() {
+        this.isbnFilter = new BloomIsbnFilter(bookService, BOOKS, 0.01);
+    }
+
+    @Test
+    @DisplayName("Deve tratar todo isbn como possivelmente cadastrado antes da carga inicial")
+    public void notReadyTest() {
+        assertThat(isbnFilter.mightContain("111")).isTrue();
+        assertThat(isbnFilter.stats().isReady()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve reconhecer todos os isbns cadastrados e descartar quase todos os inéditos")
+    public void noFalseNegativesTest() {
+        givenBooksInDatabase(BOOKS);
+
+        isbnFilter.rebuild();
+
+        for (int i = 0; i < BOOKS; i++)
+            assertThat(isbnFilter.mightContain("isbn-" + i)).isTrue();
+        int falsePositives = 0;
+        for (int i = BOOKS; i < BOOKS * 2; i++) {
+            if (isbnFilter.mightContain("isbn-" + i))
+                falsePositives++;
+        }
+        assertThat(falsePositives).isLessThan(BOOKS * 2 / 100);
+        IsbnFilter.Stats stats = isbnFilter.stats();
+        assertThat(stats.isReady()).isTrue();
+        assertThat(stats.getApproximateEntries()).isBetween(BOOKS * 95L / 100, BOOKS * 105L / 100);
+        assertThat(stats.getDefiniteMisses()).isEqualTo(BOOKS - falsePositives);
+    }
+
+    @Test
+    @DisplayName("Deve incluir no filtro os livros criados depois da carga")
+    public void createdBookTest() {
+        givenBooksInDatabase(0);
+        isbnFilter.rebuild();
+
+        isbnFilter.onBookChanged(BookChangedEvent.created(Book.builder().id(1L).isbn("777").build()));
+
+        assertThat(isbnFilter.mightContain("777")).isTrue();
+    }
+
+    private void givenBooksInDatabase(int count) {
+        Mockito.when(bookService.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(Collections.emptyList(), invocation.getArgument(1), count));
+        Mockito.when(bookService.exportAll(Mockito.any())).thenAnswer(invocation -> {
+            Consumer<Book> action = invocation.getArgument(0);
+            for (int i = 0; i < count; i++)
+                action.accept(Book.builder().id((long) i).isbn("isbn-" + i).build());
+            return (long) count;
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package org.neves.libraryapi.stress;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exporta alguns milhões de livros com heap pequeno. Roda apenas com {@code mvn -Pstress test},
+ * que limita a JVM dos testes a 64 MB.
+ */
+@Tag("stress")
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/stress/books;LAZY_QUERY_EXECUTION=1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.cache.type=none"})
+public class BookExportStressTest {
+
+    private static final int ROWS = 2_000_000;
+    private static final int INSERT_CHUNK_SIZE = 100_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from book", Long.class);
+        for (long from = count + 1; from <= ROWS; from += INSERT_CHUNK_SIZE) {
+            jdbcTemplate.update("insert into book (id, title, author, isbn, version) " +
+                            "select x, 'Livro ' || x, 'Autor ' || mod(x, 1000), 'isbn-' || x, 0 from system_range(?, ?)",
+                    from, Math.min(from + INSERT_CHUNK_SIZE - 1, ROWS));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve exportar milhões de livros em NDJSON com memória constante")
+    public void exportNdjsonTest() throws Exception {
+        assertThat(exportedLines("ndjson")).isEqualTo(ROWS);
+    }
+
+    @Test
+    @DisplayName("Deve exportar milhões de livros em CSV com memória constante")
+    public void exportCsvTest() throws Exception {
+        assertThat(exportedLines("csv")).isEqualTo(ROWS + 1);
+    }
+
+    private long exportedLines(String format) throws Exception {
+        URL url = new URL("http://localhost:" + port + "/api/books/export?format=" + format);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            long lines = 0;
+            while (reader.readLine() != null)
+                lines++;
+            return lines;
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
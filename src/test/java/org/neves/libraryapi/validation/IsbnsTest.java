@@ -0,0 +1,50 @@
+package org.neves.libraryapi.validation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IsbnsTest {
+
+    @Test
+    @DisplayName("Deve aceitar ISBN-10 e ISBN-13 com dígito verificador correto, com ou sem hífens")
+    public void validIsbnTest() {
+        assertThat(Isbns.isValid("9780306406157")).isTrue();
+        assertThat(Isbns.isValid("978-0-306-40615-7")).isTrue();
+        assertThat(Isbns.isValid("0306406152")).isTrue();
+        assertThat(Isbns.isValid("0 306 40615 2")).isTrue();
+        assertThat(Isbns.isValid("080442957X")).isTrue();
+        assertThat(Isbns.isValid("0-8044-2957-x")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve recusar textos que não sejam ISBN válidos")
+    public void invalidIsbnTest() {
+        assertThat(Isbns.isValid(null)).isFalse();
+        assertThat(Isbns.isValid("")).isFalse();
+        assertThat(Isbns.isValid("777")).isFalse();
+        assertThat(Isbns.isValid("9780306406158")).isFalse();
+        assertThat(Isbns.isValid("0306406153")).isFalse();
+        assertThat(Isbns.isValid("9770306406157")).isFalse();
+        assertThat(Isbns.isValid("08044295X7")).isFalse();
+        assertThat(Isbns.isValid("080442957X123")).isFalse();
+        assertThat(Isbns.isValid("-9780306406157")).isFalse();
+        assertThat(Isbns.isValid("978--0306406157")).isFalse();
+        assertThat(Isbns.isValid("9780306406157-")).isFalse();
+        assertThat(Isbns.isValid("97803064061570")).isFalse();
+        assertThat(Isbns.isValid("978030640615a")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve converter qualquer forma do ISBN para o ISBN-13 sem hífens")
+    public void toIsbn13Test() {
+        String canonical = "9780306406157";
+
+        assertThat(Isbns.toIsbn13(canonical)).isSameAs(canonical);
+        assertThat(Isbns.toIsbn13("978-0-306-40615-7")).isEqualTo(canonical);
+        assertThat(Isbns.toIsbn13("0-306-40615-2")).isEqualTo(canonical);
+        assertThat(Isbns.toIsbn13("080442957X")).isEqualTo("9780804429573");
+        assertThat(Isbns.toIsbn13("0306406153")).isNull();
+    }
+}